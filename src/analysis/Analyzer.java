@@ -25,4 +25,21 @@ public interface Analyzer {
      * @return name of the analyzer
      */
     public String getName();
+
+    /**
+     * Getter for the error under which a text is taken as plain language, the
+     * iterative search stops going deeper once it finds one. Each analyzer has
+     * its own error scale, so each one has its own threshold.
+     *
+     * The thresholds are calibrated on the files of {@code cipher/} deciphered
+     * with the exhaustive search: on the lines whose best guess needs a longer
+     * chain, the best guess of the shorter chains is the error that must not
+     * stop the search. The threshold is set below the minimum of those errors.
+     *
+     * @return threshold, {@link Double#NEGATIVE_INFINITY} by default so the
+     * search never stops early with analyzers of unknown scale
+     */
+    public default double getThreshold() {
+        return Double.NEGATIVE_INFINITY;
+    }
 }
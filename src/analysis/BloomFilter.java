@@ -0,0 +1,193 @@
+package analysis;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter of words, answers if a word may be in the set with a few bit
+ * probes. It never rejects a word that was added, but it accepts some words
+ * that were not (false positives), fewer the more bits per word it has.
+ *
+ * The hash of a word can be calculated one character at a time with
+ * {@link #mix(long, char)} while a text is being read, so the filter can be
+ * probed without building the word.
+ *
+ * It keeps statistics of its use, they are safe to update from the fork/join
+ * tasks.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Bloom_filter">Bloom filter
+ * Wikipedia</a>
+ * @author luki
+ */
+public class BloomFilter {
+
+    /**
+     * Hash of the empty word, see {@link #mix(long, char)}
+     */
+    public static final long START = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private final long[] bits_;
+    private final long numBits_;
+    private final int probes_;
+
+    private final LongAdder accepted_;
+    private final LongAdder rejected_;
+    private final LongAdder falsePositives_;
+
+    /**
+     * Constructor for an empty BloomFilter. With {@code b} bits per word the
+     * false positive rate is about {@code 0.6185^b}, 10 bits give about 1%.
+     *
+     * @param words number of words that will be added
+     * @param bitsPerWord bits of memory for each word, at least 1
+     */
+    public BloomFilter(int words, int bitsPerWord) {
+        bitsPerWord = Math.max(1, bitsPerWord);
+
+        long numBits = Math.max(Long.SIZE, (long) words * bitsPerWord);
+        bits_ = new long[(int) ((numBits + Long.SIZE - 1) / Long.SIZE)];
+        numBits_ = (long) bits_.length * Long.SIZE;
+        probes_ = Math.max(1, (int) Math.round(bitsPerWord * Math.log(2)));
+
+        accepted_ = new LongAdder();
+        rejected_ = new LongAdder();
+        falsePositives_ = new LongAdder();
+    }
+
+    /**
+     * Adds the hash of the next character of a word (FNV-1a)
+     *
+     * @param hash hash of the previous characters, {@link #START} for the
+     * first one
+     * @param ch next character
+     * @return hash of the word with {@code ch}
+     */
+    public static long mix(long hash, char ch) {
+        return (hash ^ ch) * PRIME;
+    }
+
+    /**
+     * Returns the hash of a whole word
+     *
+     * @param word word
+     * @return hash
+     */
+    public static long hash(CharSequence word) {
+        long hash = START;
+        for (int i = 0; i < word.length(); i++) {
+            hash = mix(hash, word.charAt(i));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Adds a word to the filter, not thread safe, all the words are added
+     * before using it
+     *
+     * @param word word to add
+     */
+    public void add(CharSequence word) {
+        long hash = spread(hash(word));
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < probes_; i++) {
+            long bit = (h1 + i * h2) % numBits_;
+            bits_[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Returns {@code false} if the word with this hash was not added,
+     * {@code true} if it may have been
+     *
+     * @param hash hash of the word, see {@link #hash(CharSequence)}
+     * @return {@code true} if the word may be in the filter
+     */
+    public boolean mightContain(long hash) {
+        hash = spread(hash);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < probes_; i++) {
+            long bit = (h1 + i * h2) % numBits_;
+            if ((bits_[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                rejected_.increment();
+                return false;
+            }
+        }
+
+        accepted_.increment();
+        return true;
+    }
+
+    /**
+     * Records that an accepted word was not in the set after all, to measure
+     * the false positive rate
+     */
+    public void recordFalsePositive() {
+        falsePositives_.increment();
+    }
+
+    /**
+     * Mixes the bits of the FNV hash so both halves are usable (MurmurHash3
+     * finaliser)
+     *
+     * @param hash hash
+     * @return mixed hash
+     */
+    private static long spread(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the number of words that may be in the set
+     *
+     * @return accepted words
+     */
+    public long getAccepted() {
+        return accepted_.sum();
+    }
+
+    /**
+     * Returns the number of words rejected without looking them up
+     *
+     * @return rejected words
+     */
+    public long getRejected() {
+        return rejected_.sum();
+    }
+
+    /**
+     * Returns the number of accepted words that were not in the set
+     *
+     * @return false positives
+     */
+    public long getFalsePositives() {
+        return falsePositives_.sum();
+    }
+
+    /**
+     * Returns the memory used by the bits
+     *
+     * @return size in bytes
+     */
+    public long getBytes() {
+        return (long) bits_.length * Long.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        long accepted = getAccepted();
+        long rejected = getRejected();
+        long falsePositives = getFalsePositives();
+        long negatives = rejected + falsePositives;
+
+        return String.format("Bloom filter (%d bytes, %d probes): %d accepted, %d rejected, %d false positives (%.2f%%)",
+                getBytes(), probes_, accepted, rejected, falsePositives, negatives == 0 ? 0 : 100.0 * falsePositives / negatives);
+    }
+}
@@ -0,0 +1,57 @@
+package analysis;
+
+/**
+ * Limits for a single decrypt call. When one of them is reached the search
+ * stops and returns the best guesses found so far, marked as partial.
+ *
+ * A limit of {@code 0} means that there is no limit.
+ *
+ * @author luki
+ */
+public class Budget {
+
+    /**
+     * Budget without limits
+     */
+    public static final Budget UNLIMITED = new Budget(0, 0, 0);
+
+    private final long millis_;
+    private final long nodes_;
+    private final long bytes_;
+
+    /**
+     * Constructor for Budget
+     *
+     * @param millis max wall-clock time in milliseconds
+     * @param nodes max number of cipher/guess expansions
+     * @param bytes max (estimated) bytes allocated for the guesses
+     */
+    public Budget(long millis, long nodes, long bytes) {
+        if (millis < 0 || nodes < 0 || bytes < 0) {
+            throw new IllegalArgumentException("The limits can not be negative");
+        }
+
+        millis_ = millis;
+        nodes_ = nodes;
+        bytes_ = bytes;
+    }
+
+    /**
+     * Returns {@code true} if any of the limits has been reached
+     *
+     * @param millis elapsed time in milliseconds
+     * @param nodes cipher/guess expansions done
+     * @param bytes estimated bytes allocated
+     * @return {@code true} if the budget is exceeded
+     */
+    public boolean isExceeded(long millis, long nodes, long bytes) {
+        return (millis_ > 0 && millis >= millis_)
+                || (nodes_ > 0 && nodes >= nodes_)
+                || (bytes_ > 0 && bytes >= bytes_);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Budget(%d ms, %d nodes, %d bytes)", millis_, nodes_, bytes_);
+    }
+}
@@ -0,0 +1,189 @@
+package analysis;
+
+import analysis.search.TranspositionTable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Analyzer} that remembers the errors of the texts it has already
+ * analyzed. The same text is scored many times, by different chains of
+ * ciphers on one line and by the lines repeated in the files.
+ *
+ * The cache holds at most {@code size} errors and drops the least recently
+ * used ones (LRU). It is split in segments with their own lock so the
+ * fork/join tasks of a parallel search share it without waiting much. The
+ * texts are stored by their 64 bit fingerprint, like the
+ * {@link TranspositionTable}, so the cache doesn't keep them alive. Each error
+ * is stored with the verifier of its text (its length and first and last
+ * characters), two texts with the same fingerprint and a different verifier
+ * are a miss and the new error replaces the old one.
+ *
+ * @author luki
+ */
+public class CachedAnalyzer implements Analyzer {
+
+    private static final int SEGMENTS = 16;
+
+    private final Analyzer analyzer_;
+    private final int size_;
+    private final Segment[] segments_;
+
+    private final LongAdder hits_;
+    private final LongAdder misses_;
+
+    /**
+     * Constructor for CachedAnalyzer
+     *
+     * @param analyzer analyzer whose errors are cached
+     * @param size max number of errors stored, at least 1
+     */
+    public CachedAnalyzer(Analyzer analyzer, int size) {
+        analyzer_ = analyzer;
+        size_ = Math.max(1, size);
+
+        int segments = Math.min(SEGMENTS, size_);
+        segments_ = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            int capacity = size_ / segments + (i < size_ % segments ? 1 : 0);
+            segments_[i] = new Segment(capacity);
+        }
+
+        hits_ = new LongAdder();
+        misses_ = new LongAdder();
+    }
+
+    @Override
+    public double analyze(String text) {
+        long fingerprint = TranspositionTable.fingerprint(text);
+        long verifier = TranspositionTable.verifier(text);
+        Segment segment = segments_[(int) ((fingerprint * 0x9E3779B97F4A7C15L) >>> 60) % segments_.length];
+
+        Double error = segment.get(fingerprint, verifier);
+        if (error != null) {
+            hits_.increment();
+            return error;
+        }
+
+        // Analyzed outside the lock, two threads may analyze the same text at
+        // the same time but both get the same error
+        misses_.increment();
+        double result = analyzer_.analyze(text);
+        segment.put(fingerprint, verifier, result);
+
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return analyzer_.getName();
+    }
+
+    @Override
+    public double getThreshold() {
+        return analyzer_.getThreshold();
+    }
+
+    /**
+     * Getter for the analyzer whose errors are cached
+     *
+     * @return analyzer
+     */
+    public Analyzer getAnalyzer() {
+        return analyzer_;
+    }
+
+    /**
+     * Returns the number of errors found in the cache
+     *
+     * @return hits
+     */
+    public long getHits() {
+        return hits_.sum();
+    }
+
+    /**
+     * Returns the number of errors that had to be calculated
+     *
+     * @return misses
+     */
+    public long getMisses() {
+        return misses_.sum();
+    }
+
+    /**
+     * Returns the fraction of the texts whose error was in the cache
+     *
+     * @return hit ratio between 0 and 1, 0 if nothing was analyzed
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Analyzer cache (%s, %d entries): %d hits, %d misses (%.2f%% hit ratio)",
+                analyzer_.getName(), size_, getHits(), getMisses(), 100 * getHitRatio());
+    }
+
+    /**
+     * Part of the cache, a {@link LinkedHashMap} in access order that removes
+     * its eldest entry when it's full
+     */
+    private static class Segment {
+
+        private final int capacity_;
+        private final LinkedHashMap<Long, Cached> map_;
+
+        private Segment(int capacity) {
+            capacity_ = capacity;
+            map_ = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                    return size() > capacity_;
+                }
+            };
+        }
+
+        /**
+         * Returns the error stored for a text
+         *
+         * @param fingerprint fingerprint of the text
+         * @param verifier verifier of the text
+         * @return error, {@code null} if there is none or it's of another text
+         */
+        private synchronized Double get(long fingerprint, long verifier) {
+            Cached cached = map_.get(fingerprint);
+            return cached == null || cached.verifier_ != verifier ? null : cached.error_;
+        }
+
+        /**
+         * Stores the error of a text, replacing the one with the same
+         * fingerprint
+         *
+         * @param fingerprint fingerprint of the text
+         * @param verifier verifier of the text
+         * @param error error of the text
+         */
+        private synchronized void put(long fingerprint, long verifier, double error) {
+            map_.put(fingerprint, new Cached(verifier, error));
+        }
+    }
+
+    /**
+     * Error of a text and the verifier of the text
+     */
+    private static class Cached {
+
+        private final long verifier_;
+        private final double error_;
+
+        private Cached(long verifier, double error) {
+            verifier_ = verifier;
+            error_ = error;
+        }
+    }
+}
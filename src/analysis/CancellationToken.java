@@ -0,0 +1,35 @@
+package analysis;
+
+/**
+ * Token used to stop a running decrypt call from another thread, the search
+ * checks it before each expansion and returns the best guesses found so far.
+ *
+ * @author luki
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled_;
+
+    /**
+     * Constructor for a not cancelled token
+     */
+    public CancellationToken() {
+        cancelled_ = false;
+    }
+
+    /**
+     * Cancels the searches using this token
+     */
+    public void cancel() {
+        cancelled_ = true;
+    }
+
+    /**
+     * Getter for cancelled_
+     *
+     * @return {@code true} if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled_;
+    }
+}
@@ -0,0 +1,185 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of words stored as a minimal DAWG (directed acyclic word graph), a trie
+ * where the equal subtrees are merged, so the words that share an ending also
+ * share its nodes.
+ *
+ * The graph is stored in primitive arrays: the edges of each node are sorted
+ * by label and stored consecutively, node {@code n} owns the edges in
+ * {@code [first[n], first[n + 1])}. Walking it does not hash or allocate, so a
+ * word can be looked up one character at a time while a text is being read.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Deterministic_acyclic_finite_state_automaton">
+ * DAWG Wikipedia</a>
+ * @author luki
+ */
+public class Dawg {
+
+    /**
+     * Node returned when there is no edge
+     */
+    public static final int NONE = -1;
+
+    private final int root_;
+    private final int[] first_;
+    private final char[] labels_;
+    private final int[] targets_;
+    private final boolean[] final_;
+
+    /**
+     * Constructor for a Dawg, builds the trie of the words and then merges its
+     * equal subtrees
+     *
+     * @param words words to store, the empty word is ignored
+     */
+    public Dawg(Collection<String> words) {
+        Node trie = new Node();
+        for (String word : words) {
+            Node node = trie;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.edges_.computeIfAbsent(word.charAt(i), ch -> new Node());
+            }
+            node.final_ = word.length() > 0;
+        }
+
+        // Children get their ids before their parents, equal subtrees get the
+        // same id
+        List<Node> nodes = new ArrayList<>();
+        root_ = minimise(trie, new HashMap<>(), nodes);
+
+        int edges = 0;
+        for (Node node : nodes) {
+            edges += node.edges_.size();
+        }
+
+        first_ = new int[nodes.size() + 1];
+        labels_ = new char[edges];
+        targets_ = new int[edges];
+        final_ = new boolean[nodes.size()];
+
+        int edge = 0;
+        for (int id = 0; id < nodes.size(); id++) {
+            Node node = nodes.get(id);
+            first_[id] = edge;
+            final_[id] = node.final_;
+            for (Map.Entry<Character, Node> entry : node.edges_.entrySet()) {
+                labels_[edge] = entry.getKey();
+                targets_[edge] = entry.getValue().id_;
+                edge++;
+            }
+        }
+        first_[nodes.size()] = edge;
+    }
+
+    /**
+     * Gives an id to the node and its subtree, reusing the id of an equal node
+     * if there is one
+     *
+     * @param node node of the trie
+     * @param register id of each node signature
+     * @param nodes one node for each id
+     * @return id of the node
+     */
+    private static int minimise(Node node, Map<String, Integer> register, List<Node> nodes) {
+        StringBuilder signature = new StringBuilder(node.final_ ? "1" : "0");
+        for (Map.Entry<Character, Node> entry : node.edges_.entrySet()) {
+            minimise(entry.getValue(), register, nodes);
+            signature.append(entry.getKey()).append(entry.getValue().id_).append(',');
+        }
+
+        Integer id = register.get(signature.toString());
+        if (id == null) {
+            id = nodes.size();
+            register.put(signature.toString(), id);
+            nodes.add(node);
+        }
+
+        node.id_ = id;
+        return id;
+    }
+
+    /**
+     * Getter for root_
+     *
+     * @return node of the empty prefix
+     */
+    public int getRoot() {
+        return root_;
+    }
+
+    /**
+     * Follows the edge of {@code node} labeled {@code ch}
+     *
+     * @param node current node
+     * @param ch next character
+     * @return next node, or {@link #NONE} if no word continues with it
+     */
+    public int next(int node, char ch) {
+        int low = first_[node];
+        int high = first_[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels_[mid] < ch) {
+                low = mid + 1;
+            } else if (labels_[mid] > ch) {
+                high = mid - 1;
+            } else {
+                return targets_[mid];
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Returns {@code true} if the path to {@code node} is a whole word
+     *
+     * @param node node
+     * @return {@code true} if a word ends at the node
+     */
+    public boolean isFinal(int node) {
+        return final_[node];
+    }
+
+    /**
+     * Returns {@code true} if the word is stored
+     *
+     * @param word word to look up
+     * @return {@code true} if it's in the set
+     */
+    public boolean contains(CharSequence word) {
+        int node = root_;
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = next(node, word.charAt(i));
+        }
+
+        return node != NONE && final_[node];
+    }
+
+    /**
+     * Returns the number of nodes, after merging
+     *
+     * @return number of nodes
+     */
+    public int size() {
+        return final_.length;
+    }
+
+    /**
+     * Node of the trie, only used while building
+     */
+    private static class Node {
+
+        private final TreeMap<Character, Node> edges_ = new TreeMap<>();
+        private boolean final_;
+        private int id_;
+    }
+}
@@ -1,7 +1,9 @@
 package analysis;
 
+import ciphers.Cipher;
 import ciphers.Key;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,80 +15,204 @@ import java.util.List;
  * different cipher and key, then sort this list by error_ with the lower one
  * first. The error_ is given by an {@link Analyzer}.
  * </p>
+ * <p>
+ * A {@code DecryptGuess} is immutable, each one only stores its own step and
+ * points to the guess of the previous step. Adding a step creates a new guess
+ * that shares all the previous steps, so it does not need to copy them.
+ * </p>
+ * <p>
+ * The text of an intermediate guess can be released once it has been
+ * expanded, it is rebuilt from the previous step when it is needed again. The
+ * text of the first step is always kept, and so is the text of a guess that
+ * is {@link #pin() pinned} while it is in some results.
+ * </p>
  *
  * @author luki
  */
-public class DecryptGuess implements Cloneable, Comparable<DecryptGuess> {
+public class DecryptGuess implements Comparable<DecryptGuess> {
 
     // I should probably change this to be calculated dynamically (depending on
     // the ciphers and key lengths)
     private static final int MAX_CIPHER_NAMES_WIDTH = 35;
-    
-    private List<String> cipherNames_;
-    private List<Key> keys_;
-    private Double error_;
-    private String decryptedText_;
+    // Cipher ids that fit in the mask, bigger ones are searched in the steps
+    private static final int MASK_BITS = Long.SIZE;
+
+    private final DecryptGuess parent_;
+    private final int depth_;
+    private final long ciphers_;
+    private final Cipher cipher_;
+    private final Key key_;
+    private final double error_;
+    private volatile String decryptedText_;
+    // Number of collectors that keep this guess, see pin()
+    private volatile int pins_;
+    // Cached like String.hashCode, 0 if not calculated yet
+    private int hash_;
 
     /**
      * Constructor for DecryptGuess
      *
-     * @param cipher cipher name
+     * @param cipher cipher used
      * @param key key used
      * @param error error of the decrypted text
      * @param decryptedText decrypted text using the given key
      */
-    public DecryptGuess(String cipher, Key key, Double error, String decryptedText) {
-        cipherNames_ = new ArrayList<>();
-        cipherNames_.add(cipher);
-
-        keys_ = new ArrayList<>();
-        keys_.add(key);
-
-        error_ = error;
-        decryptedText_ = decryptedText;
+    public DecryptGuess(Cipher cipher, Key key, double error, String decryptedText) {
+        this(null, cipher, key, error, decryptedText);
     }
 
     /**
-     * Private constructor used for cloning this object
+     * Private constructor used for adding a step to a guess
      *
-     * @param cipherNames cipher names
-     * @param keys keys
+     * @param parent guess of the previous step, {@code null} if it's the first
+     * @param cipher cipher used
+     * @param key key used
      * @param error error
-     * @param decryptedText decrypted text
+     * @param decryptedText decrypted text, {@code null} to build it lazily
      */
-    private DecryptGuess(List<String> cipherNames, List<Key> keys, Double error, String decryptedText) {
-        cipherNames_ = cipherNames;
-        keys_ = keys;
+    private DecryptGuess(DecryptGuess parent, Cipher cipher, Key key, double error, String decryptedText) {
+        parent_ = parent;
+        depth_ = parent == null ? 1 : parent.depth_ + 1;
+        ciphers_ = (parent == null ? 0 : parent.ciphers_) | bit(cipher);
+        cipher_ = cipher;
+        key_ = key;
         error_ = error;
         decryptedText_ = decryptedText;
     }
 
     /**
      * Adds a new step to the decryption process, in case the text is encrypted
-     * multiple times with various ciphers
+     * multiple times with various ciphers. This guess is not modified.
      *
-     * @param cipher new cipher name
+     * @param cipher new cipher used
      * @param key new key used
      * @param error new error from the combined cipher
      * @param decryptedText new decrypted text
-     * @return this, in case multiple steps need to be added as a one-liner
+     * @return a new guess with this one as the previous step
      */
-    public DecryptGuess addStep(String cipher, Key key, Double error, String decryptedText) {
-        cipherNames_.add(cipher);
-        keys_.add(key);
-        error_ = error;
-        decryptedText_ = decryptedText;
+    public DecryptGuess addStep(Cipher cipher, Key key, double error, String decryptedText) {
+        return new DecryptGuess(this, cipher, key, error, decryptedText);
+    }
+
+    /**
+     * Adds a new step whose text is not known yet, it is deciphered from the
+     * text of this guess the first time it is needed.
+     *
+     * @param cipher new cipher used
+     * @param key new key used
+     * @param error new error from the combined cipher
+     * @return a new guess with this one as the previous step
+     */
+    public DecryptGuess addStep(Cipher cipher, Key key, double error) {
+        return new DecryptGuess(this, cipher, key, error, null);
+    }
+
+    /**
+     * Getter for parent_
+     *
+     * @return guess of the previous step, {@code null} if this is the first
+     */
+    public DecryptGuess getParent() {
+        return parent_;
+    }
+
+    /**
+     * Getter for depth_
+     *
+     * @return number of steps, 1 if this is the first
+     */
+    public int getDepth() {
+        return depth_;
+    }
+
+    /**
+     * Getter for cipher_
+     *
+     * @return cipher of the last step
+     */
+    public Cipher getCipher() {
+        return cipher_;
+    }
+
+    /**
+     * Returns the name of cipher_
+     *
+     * @return cipher name of the last step
+     */
+    public String getCipherName() {
+        return cipher_.getName();
+    }
+
+    /**
+     * Getter for key_
+     *
+     * @return key of the last step
+     */
+    public Key getKey() {
+        return key_;
+    }
+
+    /**
+     * Returns {@code true} if any of the steps used the given cipher, checks
+     * the bit of its id so the steps do not have to be walked
+     *
+     * @param cipher cipher
+     * @return {@code true} if the cipher is in the steps
+     */
+    public boolean hasCipher(Cipher cipher) {
+        if (cipher.getId() < MASK_BITS) {
+            return (ciphers_ & bit(cipher)) != 0;
+        }
+
+        for (DecryptGuess dg = this; dg != null; dg = dg.parent_) {
+            if (dg.cipher_.getId() == cipher.getId()) {
+                return true;
+            }
+        }
 
-        return this;
+        return false;
     }
 
     /**
-     * Getter for cipherNames_
+     * Returns the bit of the cipher id in the mask, {@code 0} if it does not
+     * fit
      *
-     * @return cipherNames_
+     * @param cipher cipher
+     * @return mask with only the cipher bit set
+     */
+    private static long bit(Cipher cipher) {
+        int id = cipher.getId();
+        return id < MASK_BITS ? 1L << id : 0;
+    }
+
+    /**
+     * Returns the cipher names of all the steps, the first step first
+     *
+     * @return cipher names
      */
     public List<String> getCipherNames() {
-        return cipherNames_;
+        List<String> names = new ArrayList<>(depth_);
+        for (DecryptGuess dg = this; dg != null; dg = dg.parent_) {
+            names.add(dg.cipher_.getName());
+        }
+
+        Collections.reverse(names);
+        return names;
+    }
+
+    /**
+     * Returns the keys of all the steps, the first step first
+     *
+     * @return keys
+     */
+    public List<Key> getKeys() {
+        List<Key> keys = new ArrayList<>(depth_);
+        for (DecryptGuess dg = this; dg != null; dg = dg.parent_) {
+            keys.add(dg.key_);
+        }
+
+        Collections.reverse(keys);
+        return keys;
     }
 
     /**
@@ -94,37 +220,89 @@ public class DecryptGuess implements Cloneable, Comparable<DecryptGuess> {
      *
      * @return error_
      */
-    public Double getError() {
+    public double getError() {
         return error_;
     }
 
     /**
-     * Getter for decryptedText_
+     * Getter for decryptedText_, if it was released it is deciphered again
+     * from the previous step (and not kept)
      *
      * @return decryptedText_
      */
     public String getDecryptedText() {
-        return decryptedText_;
+        String text = decryptedText_;
+        if (text == null) {
+            text = cipher_.decrypt(parent_.getDecryptedText(), key_);
+        }
+
+        return text;
     }
 
-    @Override
-    public DecryptGuess clone() {
-        List<String> newNames = new ArrayList<>();
-        for (String name : cipherNames_) {
-            newNames.add(name);
+    /**
+     * Returns {@code true} if the text is held in memory
+     *
+     * @return {@code true} if the text does not have to be deciphered again
+     */
+    public boolean hasText() {
+        return decryptedText_ != null;
+    }
+
+    /**
+     * Releases the text of this guess, it will be deciphered again from the
+     * previous step if needed. The text of the first step and of pinned
+     * guesses is never released.
+     */
+    public void release() {
+        if (parent_ != null && pins_ == 0) {
+            decryptedText_ = null;
+        }
+    }
+
+    /**
+     * Deciphers the text if it was released and keeps it until
+     * {@link #unpin()}, so comparing and printing the guess don't decipher it
+     * again. Used by {@link TopGuesses} for the guesses it keeps, the pins
+     * are counted so the text is kept while any of them holds the guess.
+     *
+     * @return decrypted text
+     */
+    public String pin() {
+        synchronized (this) {
+            pins_++;
         }
 
-        List<Key> newKeys = new ArrayList<>();
-        for (Key key : keys_) {
-            newKeys.add(new Key(key.get()));
+        String text = decryptedText_;
+        if (text == null) {
+            text = getDecryptedText();
+            decryptedText_ = text;
         }
 
-        return new DecryptGuess(newNames, newKeys, error_, decryptedText_);
+        return text;
+    }
+
+    /**
+     * Returns {@code true} if the guess is pinned, see {@link #pin()}
+     *
+     * @return {@code true} if the text is kept
+     */
+    public boolean isPinned() {
+        return pins_ > 0;
+    }
+
+    /**
+     * Removes one pin, the text can be released again when there are none
+     * left, see {@link #pin()}
+     */
+    public synchronized void unpin() {
+        if (pins_ > 0) {
+            pins_--;
+        }
     }
 
     @Override
     public int compareTo(DecryptGuess t) {
-        return error_.compareTo(t.error_);
+        return Double.compare(error_, t.error_);
     }
 
     @Override
@@ -138,25 +316,40 @@ public class DecryptGuess implements Cloneable, Comparable<DecryptGuess> {
         }
 
         DecryptGuess other = (DecryptGuess) obj;
-        return error_.equals(other.error_) && decryptedText_.equals(other.decryptedText_);
+        return Double.compare(error_, other.error_) == 0 && hashCode() == other.hashCode()
+                && getDecryptedText().equals(other.getDecryptedText());
+    }
+
+    @Override
+    public int hashCode() {
+        // Same fields as equals, so guesses can be deduplicated in hash sets
+        int hash = hash_;
+        if (hash == 0) {
+            hash = 31 * Double.hashCode(error_) + getDecryptedText().hashCode();
+            hash_ = hash;
+        }
+
+        return hash;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        for (int i = 0; i < cipherNames_.size(); i++) {
-            String keyString = keys_.get(i).getString();
+        List<String> cipherNames = getCipherNames();
+        List<Key> keys = getKeys();
+        for (int i = 0; i < cipherNames.size(); i++) {
+            String keyString = keys.get(i).getString();
             if (keyString.equals(Key.NONE)) {
-                sb.append(String.format("[%s]", cipherNames_.get(i)));
+                sb.append(String.format("[%s]", cipherNames.get(i)));
             } else {
-                sb.append(String.format("[%s %s]", cipherNames_.get(i), keyString));
+                sb.append(String.format("[%s %s]", cipherNames.get(i), keyString));
             }
         }
 
         sb.append(" ".repeat(Math.max(0, MAX_CIPHER_NAMES_WIDTH - sb.length())));
 
-        sb.append(String.format("\tError: %5.0f;    %s", error_, decryptedText_));
+        sb.append(String.format("\tError: %5.0f;    %s", error_, getDecryptedText()));
 
         return sb.toString();
     }
@@ -0,0 +1,100 @@
+package analysis;
+
+import analysis.search.Search;
+import analysis.search.SearchContext;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming version of {@link Decrypter#decrypt(String, int)}. Each
+ * {@link DecryptGuess} that enters the best-so-far ranking is published as soon
+ * as it is found, and {@link #getRanking()} can be called at any time.
+ *
+ * The search runs on its own thread and starts with the first subscription,
+ * the publisher is closed when the search ends, because it finished, the
+ * {@link Budget} was exceeded or it was cancelled.
+ *
+ * @author luki
+ */
+public class DecryptPublisher extends SubmissionPublisher<DecryptGuess> {
+
+    private final Search search_;
+    private final String encryptedText_;
+    private final TopGuesses results_;
+    private final CancellationToken token_;
+    private final SearchContext context_;
+    private final AtomicBoolean started_;
+
+    /**
+     * Constructor for DecryptPublisher
+     *
+     * @param search search strategy to use
+     * @param encryptedText text to decrypt
+     * @param k max number of guesses to keep
+     * @param budget limits of the search
+     */
+    DecryptPublisher(Search search, String encryptedText, int k, Budget budget) {
+        search_ = search;
+        encryptedText_ = encryptedText;
+        results_ = new TopGuesses(k, this::submit);
+        token_ = new CancellationToken();
+        context_ = new SearchContext(budget, token_);
+        started_ = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super DecryptGuess> subscriber) {
+        super.subscribe(subscriber);
+
+        if (started_.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::run, "decrypter");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the best guesses found so far in ascending error, lower first.
+     * Once the publisher is closed this is the final result.
+     *
+     * @return sorted list of {@link DecryptGuess}
+     */
+    public List<DecryptGuess> getRanking() {
+        return results_.toList();
+    }
+
+    /**
+     * Stops the search, the guesses found so far stay in the ranking
+     */
+    public void cancel() {
+        token_.cancel();
+    }
+
+    /**
+     * Returns {@code true} if the search was stopped before the end
+     *
+     * @return {@code true} if the ranking is partial
+     */
+    public boolean isPartial() {
+        return context_.isPartial();
+    }
+
+    /**
+     * Runs the search and closes the publisher. Any failure closes it
+     * exceptionally so the subscribers don't wait forever, errors (like
+     * running out of memory) are thrown again afterwards.
+     */
+    private void run() {
+        try {
+            search_.search(encryptedText_, results_, context_);
+            close();
+        } catch (Throwable e) {
+            closeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+}
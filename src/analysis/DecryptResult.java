@@ -0,0 +1,57 @@
+package analysis;
+
+import java.util.List;
+
+/**
+ * Result of a decrypt call, the sorted guesses and if the search was stopped
+ * before the end by its {@link Budget} or {@link CancellationToken}.
+ *
+ * @author luki
+ */
+public class DecryptResult {
+
+    private final List<DecryptGuess> guesses_;
+    private final boolean partial_;
+    private final long nodes_;
+
+    /**
+     * Constructor for DecryptResult
+     *
+     * @param guesses guesses in ascending error
+     * @param partial {@code true} if the search did not finish
+     * @param nodes number of cipher/guess expansions done
+     */
+    public DecryptResult(List<DecryptGuess> guesses, boolean partial, long nodes) {
+        guesses_ = guesses;
+        partial_ = partial;
+        nodes_ = nodes;
+    }
+
+    /**
+     * Getter for guesses_
+     *
+     * @return guesses in ascending error, lower first
+     */
+    public List<DecryptGuess> getGuesses() {
+        return guesses_;
+    }
+
+    /**
+     * Getter for partial_
+     *
+     * @return {@code true} if the guesses are the best found before a limit
+     * was reached
+     */
+    public boolean isPartial() {
+        return partial_;
+    }
+
+    /**
+     * Getter for nodes_
+     *
+     * @return number of cipher/guess expansions done
+     */
+    public long getNodes() {
+        return nodes_;
+    }
+}
@@ -1,11 +1,16 @@
 package analysis;
 
+import analysis.search.BeamSearch;
+import analysis.search.BestFirstSearch;
+import analysis.search.ExhaustiveSearch;
+import analysis.search.IterativeDeepeningSearch;
+import analysis.search.Search;
+import analysis.search.SearchContext;
 import ciphers.*;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import utils.Config;
+import utils.IO;
 
 /**
  * This class manages all the decryption process, just create an instance and
@@ -13,21 +18,95 @@ import utils.Config;
  * will return a list of sorted {@link DecryptGuess}, the first ones being the
  * most probable original text.
  *
+ * A Decrypter is immutable once created, all the state of a decrypt call is
+ * kept in that call. So one instance can be shared by many threads, and
+ * instances with different configurations or ciphers can be used at the same
+ * time.
+ *
  * @author luki
  */
 public class Decrypter {
 
-    private static Set<Cipher> ciphers_;
+    private final Search search_;
+    private final Budget budget_;
 
     /**
-     * Decrypter constructor, initializes the analysisTools attribute putting
-     * all the implemented ciphers and their respective analysis tool.
+     * Decrypter constructor, creates the search strategy with the given
+     * ciphers.
+     *
+     * The search strategy is read from the {@code decrypt.strategy} key, if it
+     * is not a known one the exhaustive search is used. The max number of
+     * ciphers in a guess is read from {@code decrypt.max-depth}. The default
+     * {@link Budget} of each call is read from the {@code decrypt.time-limit}
+     * (milliseconds), {@code decrypt.node-limit} and
+     * {@code decrypt.memory-limit} (KiB) keys.
      *
      * @param conf Config object
      * @param ciphers Set of available/implemented ciphers
+     * @param analyzer analyzer used by the ciphers, gives the threshold of the
+     * iterative search if {@code decrypt.threshold} is not set
      */
-    public static void init(Config conf, Set<Cipher> ciphers) {
-        ciphers_ = ciphers;
+    public Decrypter(Config conf, Set<Cipher> ciphers, Analyzer analyzer) {
+        search_ = createSearch(conf, ciphers, analyzer);
+
+        int timeLimit = conf.get("decrypt.time-limit");
+        int nodeLimit = conf.get("decrypt.node-limit");
+        int memoryLimit = conf.get("decrypt.memory-limit");
+        budget_ = new Budget(timeLimit, nodeLimit, 1024L * memoryLimit);
+
+        IO.debug(String.format("Search strategy: %s", search_.getName()));
+        IO.debug(budget_);
+    }
+
+    /**
+     * Creates the search strategy given in the {@code decrypt.strategy} key
+     *
+     * @param conf Config object
+     * @param ciphers Set of available/implemented ciphers
+     * @param analyzer analyzer used by the ciphers
+     * @return search strategy
+     */
+    private static Search createSearch(Config conf, Set<Cipher> ciphers, Analyzer analyzer) {
+        boolean parallel = conf.get("decrypt.parallel");
+        int maxChain = conf.get("decrypt.max-depth");
+        String strategy = conf.get("decrypt.strategy");
+
+        switch (strategy) {
+            case BeamSearch.NAME -> {
+                conf.checkAtLeast("decrypt.beam-width", 1);
+                return new BeamSearch(ciphers, parallel, maxChain, conf.get("decrypt.beam-width"));
+            }
+            case BestFirstSearch.NAME -> {
+                conf.checkAtLeast("decrypt.guesses", 1);
+                conf.checkAtLeast("decrypt.patience", 1);
+                return new BestFirstSearch(ciphers, parallel, maxChain, conf.get("decrypt.guesses"), conf.get("decrypt.patience"));
+            }
+            case IterativeDeepeningSearch.NAME -> {
+                Double threshold = conf.get("decrypt.threshold");
+                if (threshold == null) {
+                    threshold = analyzer.getThreshold();
+                }
+
+                IO.debug(String.format("Iterative threshold: %s", threshold));
+                return new IterativeDeepeningSearch(ciphers, parallel, maxChain, threshold);
+            }
+            case ExhaustiveSearch.NAME -> {
+                return new ExhaustiveSearch(ciphers, parallel, maxChain);
+            }
+            default -> {
+                IO.warn(String.format("Unknown search strategy \"%s\", using %s", strategy, ExhaustiveSearch.NAME));
+                return new ExhaustiveSearch(ciphers, parallel, maxChain);
+            }
+        }
+    }
+
+    /**
+     * Getter for the default budget of each call
+     *
+     * @return budget_
+     */
+    public Budget getBudget() {
+        return budget_;
     }
 
     /**
@@ -38,65 +117,52 @@ public class Decrypter {
      * @param encryptedText text to decrypt
      * @return list of {@link DecryptGuess} in ascending order
      */
-    public static List<DecryptGuess> decrypt(String encryptedText) {
-        List<DecryptGuess> finalGuesses = new ArrayList<>();
-
-        // First round of deciphering
-        for (Cipher cipher : ciphers_) {
-            finalGuesses.addAll(cipher.decryptWithoutKey(encryptedText, null));
-        }
-
-        int maxDepth = Math.min(ciphers_.size(), Integer.MAX_VALUE) - 1;
-        for (int i = 0; i < maxDepth; i++) {
-            List<DecryptGuess> clone = cloneList(finalGuesses);
-            List<DecryptGuess> toRemove = new ArrayList<>();
-
-            for (Cipher cipher : ciphers_) {
-                List<DecryptGuess> guessesToAdd = new ArrayList<>();
-
-                for (int j = 0; j < clone.size(); j++) {
-                    DecryptGuess dg = clone.get(j);
-                    if (dg.getError().equals(Double.POSITIVE_INFINITY)) {
-                        toRemove.add(finalGuesses.get(j));
-                    }
-
-                    if (dg.getCipherNames().contains(cipher.getName())) {
-                        continue;
-                    }
-
-                    guessesToAdd.addAll(cipher.decryptWithoutKey(dg.getDecryptedText(), dg.clone()));
-                }
-
-                finalGuesses.addAll(guessesToAdd);
-            }
+    public List<DecryptGuess> decrypt(String encryptedText) {
+        return decrypt(encryptedText, TopGuesses.ALL);
+    }
 
-            finalGuesses.removeAll(toRemove);
-        }
+    /**
+     * Same as {@link #decrypt(String)} but only the best {@code k} guesses are
+     * kept during the search, the rest are discarded as soon as they can not
+     * make the cut.
+     *
+     * @param encryptedText text to decrypt
+     * @param k max number of guesses to return
+     * @return list of the best {@link DecryptGuess} in ascending order
+     */
+    public List<DecryptGuess> decrypt(String encryptedText, int k) {
+        return decrypt(encryptedText, k, budget_, null).getGuesses();
+    }
 
-        // Remove duplicates from finalGuesses
-        List<DecryptGuess> actualFinalGuesses = new ArrayList<>();
-        for (DecryptGuess dg : finalGuesses) {
-            if (!actualFinalGuesses.contains(dg)) {
-                actualFinalGuesses.add(dg);
-            }
-        }
+    /**
+     * Same as {@link #decrypt(String, int)} but the search stops when the
+     * budget is exceeded or the token is cancelled, in that case the best
+     * guesses found so far are returned and the result is marked as partial.
+     *
+     * @param encryptedText text to decrypt
+     * @param k max number of guesses to return
+     * @param budget limits of this call
+     * @param token cancellation token, can be {@code null}
+     * @return the best guesses and if they are partial
+     */
+    public DecryptResult decrypt(String encryptedText, int k, Budget budget, CancellationToken token) {
+        TopGuesses results = new TopGuesses(k);
+        SearchContext context = new SearchContext(budget, token);
+        search_.search(encryptedText, results, context);
 
-        Collections.sort(actualFinalGuesses);
-        return actualFinalGuesses;
+        return new DecryptResult(results.toList(), context.isPartial(), context.getNodes());
     }
 
     /**
-     * Clones a list of {@link DecryptGuess}
+     * Streaming version of {@link #decrypt(String, int)}, the guesses are
+     * published while the search runs, see {@link DecryptPublisher}. The
+     * search can be stopped with {@link DecryptPublisher#cancel()}.
      *
-     * @param list list to clone
-     * @return clone of list
+     * @param encryptedText text to decrypt
+     * @param k max number of guesses to keep
+     * @return publisher of the guesses, the search starts when subscribed
      */
-    private static List<DecryptGuess> cloneList(List<DecryptGuess> list) {
-        List<DecryptGuess> clone = new ArrayList<>();
-        for (DecryptGuess dg : list) {
-            clone.add(dg.clone());
-        }
-
-        return clone;
+    public DecryptPublisher stream(String encryptedText, int k) {
+        return new DecryptPublisher(search_, encryptedText, k, budget_);
     }
 }
@@ -0,0 +1,183 @@
+package analysis;
+
+import utils.Config;
+import utils.TextHelper;
+
+/**
+ * This class scores texts by how many of their words are in the word list of
+ * the language, it ranks short texts better than the letter frequencies.
+ *
+ * The text is read in one pass, the hash of each word (letters, and
+ * apostrophes between letters) is calculated while it's read. If the language
+ * has a {@link BloomFilter} most of the words that are not in the list are
+ * rejected with it, the rest are looked up in a {@link Dawg}. The error is
+ * the % of words that are not in the list, from 0 to 100, so it has its own
+ * {@link #THRESHOLD}.
+ *
+ * @author luki
+ */
+public class DictionaryAnalysis implements Analyzer {
+
+    /**
+     * Name used to select this analyzer in the {@code decrypt.analyzer} key
+     */
+    public static final String KEY = "dictionary";
+
+    /**
+     * Name of the Analyzer
+     */
+    private static final String NAME = "Dictionary Analysis";
+
+    /**
+     * Error under which a text is taken as plain language: at least half of
+     * its words are known, see {@link Analyzer#getThreshold()}. The lowest
+     * shorter chain scores 67, a third of its words.
+     */
+    public static final double THRESHOLD = 50;
+    private static final char APOSTROPHE = '\'';
+
+    private final String alphabet_;
+    private final int[] slots_;
+    private final Dawg dictionary_;
+    private final BloomFilter filter_;
+
+    /**
+     * Constructor for a Dictionary Analysis object, the words are taken from
+     * the config (see {@link Config#loadConfig()})
+     *
+     * @param conf Config object
+     */
+    public DictionaryAnalysis(Config conf) {
+        FrequencyTable table = conf.get("lang.frequency-table");
+
+        alphabet_ = table.getAlphabet();
+        slots_ = table.getSlots();
+        dictionary_ = conf.get("lang.dictionary");
+        filter_ = conf.get("lang.dictionary-filter");
+    }
+
+    /**
+     * Returns the % of words of the text that are not in the word list, or
+     * {@code +Infinity} if it has no words
+     *
+     * @param text text to analyze
+     * @return the error
+     */
+    @Override
+    public double analyze(String text) {
+        double error = score(text, false);
+        if (Double.isNaN(error)) {
+            error = score(TextHelper.normalize(text), true);
+        }
+
+        return error;
+    }
+
+    /**
+     * Scores the text in one pass
+     *
+     * @param text text to score
+     * @param normalized {@code true} if the text is already normalized, then
+     * the characters that are not ASCII are skipped
+     * @return the error, or {@code NaN} if the text is not ASCII and has to be
+     * normalized
+     */
+    private double score(String text, boolean normalized) {
+        int words = 0;
+        int hits = 0;
+        int start = 0;
+        long hash = BloomFilter.START;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= FrequencyTable.ASCII && !normalized) {
+                return Double.NaN;
+            }
+
+            int slot = ch < FrequencyTable.ASCII ? slots_[ch] : FrequencyTable.NO_SLOT;
+            if (slot != FrequencyTable.NO_SLOT) {
+                if (!inWord) {
+                    inWord = true;
+                    start = i;
+                    hash = BloomFilter.START;
+                    words++;
+                }
+
+                hash = BloomFilter.mix(hash, alphabet_.charAt(slot));
+            } else if (ch == APOSTROPHE && inWord && isLetter(text, i + 1)) {
+                hash = BloomFilter.mix(hash, APOSTROPHE);
+            } else if (inWord) {
+                inWord = false;
+                if (isWord(text, start, i, hash)) {
+                    hits++;
+                }
+            }
+        }
+
+        if (inWord && isWord(text, start, text.length(), hash)) {
+            hits++;
+        }
+
+        if (words == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return 100.0 * (words - hits) / words;
+    }
+
+    /**
+     * Returns {@code true} if the word in {@code [start, end)} is in the list,
+     * the filter is probed first and only the words it accepts are looked up
+     *
+     * @param text text
+     * @param start first character of the word
+     * @param end index after the last character of the word
+     * @param hash hash of the word, see {@link BloomFilter#mix(long, char)}
+     * @return {@code true} if it's in the list
+     */
+    private boolean isWord(String text, int start, int end, long hash) {
+        if (filter_ != null && !filter_.mightContain(hash)) {
+            return false;
+        }
+
+        int node = dictionary_.getRoot();
+        for (int i = start; i < end && node != Dawg.NONE; i++) {
+            char ch = text.charAt(i);
+            node = dictionary_.next(node, ch == APOSTROPHE ? APOSTROPHE : alphabet_.charAt(slots_[ch]));
+        }
+
+        boolean found = node != Dawg.NONE && dictionary_.isFinal(node);
+        if (!found && filter_ != null) {
+            filter_.recordFalsePositive();
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns {@code true} if there is a letter of the alphabet at
+     * {@code index}
+     *
+     * @param text text
+     * @param index index, can be out of the text
+     * @return {@code true} if it's a letter
+     */
+    private boolean isLetter(String text, int index) {
+        if (index >= text.length()) {
+            return false;
+        }
+
+        char ch = text.charAt(index);
+        return ch < FrequencyTable.ASCII && slots_[ch] != FrequencyTable.NO_SLOT;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+}
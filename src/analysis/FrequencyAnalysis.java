@@ -1,19 +1,33 @@
 package analysis;
 
-import java.util.HashMap;
-import java.util.Map;
+import analysis.metric.ChiSquaredMetric;
+import analysis.metric.CosineMetric;
+import analysis.metric.EuclideanMetric;
+import analysis.metric.LogLikelihoodMetric;
+import analysis.metric.Metric;
+import java.util.Arrays;
 import utils.Config;
+import utils.IO;
 import utils.TextHelper;
 
 /**
  * This class uses Frequency Analysis to help breaking some simple substitution
  * ciphers
  *
+ * The letters are counted in an {@code int[]} histogram, each character is
+ * mapped to its slot (the index in the alphabet) with the precomputed
+ * {@link FrequencyTable}, and the histogram is scored with a {@link Metric}.
+ *
  * @see <a href="https://en.wikipedia.org/wiki/Frequency_analysis">Frequency
  * Analysis Wikipedia</a>
  * @author luki
  */
-public class FrequencyAnalysis implements Analyzer {
+public class FrequencyAnalysis implements HistogramAnalyzer {
+
+    /**
+     * Name used to select this analyzer in the {@code decrypt.analyzer} key
+     */
+    public static final String KEY = "frequency";
 
     /**
      * Name of the Analyzer
@@ -21,82 +35,174 @@ public class FrequencyAnalysis implements Analyzer {
     private static final String NAME = "Frequency Analysis";
 
     private final String alphabet_;
-    private final Map<String, Double> freqsMono_;
+    private final int[] slots_;
+    private final Metric metric_;
+    private final ThreadLocal<int[]> counts_;
 
     /**
-     * Constructor for a Frequency Analysis object, here the alphabet and the
-     * letter frequencies are saved in the attributes.
+     * Constructor for a Frequency Analysis object, the frequency table is
+     * taken from the config and the metric is the one given in the
+     * {@code decrypt.metric} key.
      *
      * @param conf Config object
      */
     public FrequencyAnalysis(Config conf) {
-        alphabet_ = conf.get("lang.alphabet");
-        freqsMono_ = conf.get("lang.frequencies-mono");
+        FrequencyTable table = conf.get("lang.frequency-table");
+
+        alphabet_ = table.getAlphabet();
+        slots_ = table.getSlots();
+        metric_ = createMetric(conf.get("decrypt.metric"), table);
+        counts_ = ThreadLocal.withInitial(() -> new int[alphabet_.length()]);
+    }
+
+    /**
+     * Creates the metric with the given name
+     *
+     * @param metric name of the metric
+     * @param table frequencies of the language
+     * @return metric
+     */
+    private static Metric createMetric(String metric, FrequencyTable table) {
+        switch (metric) {
+            case ChiSquaredMetric.NAME -> {
+                return new ChiSquaredMetric(table);
+            }
+            case LogLikelihoodMetric.NAME -> {
+                return new LogLikelihoodMetric(table);
+            }
+            case CosineMetric.NAME -> {
+                return new CosineMetric(table);
+            }
+            case EuclideanMetric.NAME -> {
+                return new EuclideanMetric(table);
+            }
+            default -> {
+                IO.warn(String.format("Unknown metric \"%s\", using %s", metric, EuclideanMetric.NAME));
+                return new EuclideanMetric(table);
+            }
+        }
     }
 
     /**
      * Performs a letter frequency analysis on the given String and returns the
      * "error", a way to measure how much of the language is the given text.
-     * This error calculation is done in the {@link #calculateError(Map, int)}
-     * method.
+     * This error calculation is done in the
+     * {@link #calculateError(int[], int)} method.
+     *
+     * ASCII texts are counted in one pass without allocating, any other text
+     * is normalized first.
      *
      * @param text text to analyze
      * @return the error
      */
     @Override
     public double analyze(String text) {
-        Map<String, Double> analyzedFreqs = new HashMap<>();
-        text = TextHelper.normalize(text);
+        int[] counts = counts_.get();
+        Arrays.fill(counts, 0);
 
-        String chr;
+        int N = count(text, counts, false);
+        if (N < 0) {
+            Arrays.fill(counts, 0);
+            N = count(TextHelper.normalize(text), counts, true);
+        }
+
+        return calculateError(counts, N);
+    }
+
+    @Override
+    public double getThreshold() {
+        return metric_.getThreshold();
+    }
+
+    @Override
+    public int[] histogram(String text) {
+        int[] counts = new int[alphabet_.length()];
+        if (count(text, counts, false) < 0) {
+            Arrays.fill(counts, 0);
+            count(TextHelper.normalize(text), counts, true);
+        }
+
+        return counts;
+    }
+
+    @Override
+    public double analyzeHistogram(int[] counts, int shift) {
+        int N = 0;
+        for (int count : counts) {
+            N += count;
+        }
+
+        return calculateError(counts, N, shift);
+    }
+
+    /**
+     * Adds the letters of the text to the histogram
+     *
+     * @param text text to count
+     * @param counts histogram, indexed by alphabet slot
+     * @param normalized {@code true} if the text is already normalized, then
+     * the characters that are not ASCII are skipped
+     * @return number of letters counted, or {@code -1} if the text is not
+     * ASCII and has to be normalized
+     */
+    private int count(String text, int[] counts, boolean normalized) {
         int N = 0;
         for (int i = 0; i < text.length(); i++) {
-            chr = String.valueOf(text.charAt(i));
+            char ch = text.charAt(i);
+            if (ch >= FrequencyTable.ASCII) {
+                if (normalized) {
+                    continue;
+                }
 
-            if (!alphabet_.contains(chr)) {
-                continue;
+                return -1;
             }
 
-            Double val = analyzedFreqs.get(chr);
-            if (val == null) {
-                analyzedFreqs.put(chr, 1.0);
-            } else {
-                analyzedFreqs.put(chr, val + 1);
+            int slot = slots_[ch];
+            if (slot != FrequencyTable.NO_SLOT) {
+                counts[slot]++;
+                N++;
             }
-
-            N++;
         }
 
-        return calculateError(analyzedFreqs, N);
+        return N;
     }
 
     /**
-     * Returns the euclidean distance squared between the analyzed frequencies
+     * Returns the error of the analyzed frequencies given by the metric, by
+     * default the euclidean distance squared between the analyzed frequencies
      * and the theoretical frequencies
      *
-     * @param analyzedFreqs analyzed frequencies
+     * @param counts number of times each letter appears, indexed like the
+     * alphabet
      * @param N total number of characters counted
-     * @return euclidean distance (error)
+     * @return error, {@code +Infinity} if there are no characters
      */
-    public Double calculateError(Map<String, Double> analyzedFreqs, int N) {
-        double error = Double.POSITIVE_INFINITY;
+    public double calculateError(int[] counts, int N) {
+        return calculateError(counts, N, 0);
+    }
+
+    /**
+     * Same as {@link #calculateError(int[], int)} with the histogram rotated,
+     * see {@link #analyzeHistogram(int[], int)}
+     *
+     * @param counts number of times each letter appears, indexed like the
+     * alphabet
+     * @param N total number of characters counted
+     * @param shift rotation of the histogram
+     * @return error, {@code +Infinity} if there are no characters
+     */
+    private double calculateError(int[] counts, int N, int shift) {
         if (N == 0) {
             // Division by zero, return +Infinity
-            return error;
+            return Double.POSITIVE_INFINITY;
         }
 
-        error = 0;
-
-        for (String key : freqsMono_.keySet()) {
-            Double value = analyzedFreqs.get(key);
-            if (value == null) {
-                value = 0.0;
-            }
-
-            error += Math.pow(freqsMono_.get(key) - 100 * value / N, 2);
-        }
+        return metric_.error(counts, N, shift);
+    }
 
-        return error;
+    @Override
+    public String getAlphabet() {
+        return alphabet_;
     }
 
     @Override
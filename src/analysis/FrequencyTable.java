@@ -0,0 +1,608 @@
+package analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import utils.IO;
+import utils.TextHelper;
+
+/**
+ * Letter frequencies of a language in the shape the analyzers use them, they
+ * are calculated once when the configuration is loaded (see
+ * {@link utils.Config#loadConfig()}) and shared by every analyzer.
+ *
+ * Every array is indexed by slot, the index of the letter in the alphabet. The
+ * arrays are returned as they are for speed, they must not be modified.
+ *
+ * The n-gram tables (if the config has them) are dense tables of floats, the
+ * natural logarithms of probabilities, indexed by the packed code of the
+ * n-gram: the slots of its letters as the digits of a number in base
+ * {@code alphabet.length()}. The config only lists the common n-grams, the
+ * rest back off to the lower order: a bigram to the product of its letters and
+ * a quadgram to the product of its two bigrams, never more likely than the
+ * least likely n-gram listed.
+ *
+ * A table can be saved to a binary language model file (see
+ * {@link #write(File)}) and mapped back into memory (see {@link #map(File)}),
+ * so it does not have to be parsed and built again. The file is, in little
+ * endian:
+ * <pre>
+ * "GFLM"                 magic, 4 ASCII bytes
+ * int                    version, {@value #VERSION}
+ * int                    length of the alphabet, L
+ * char[L]                alphabet, padded with 0 to a multiple of 8 bytes
+ * double                 constant, see {@link #getConstant()}
+ * double[L]              monogram frequencies in %, NaN if not given
+ * int                    number of monogram entries of the config, M
+ * M x (int, char[], double)
+ *                        each entry: length of the key, key and frequency
+ *                        in %, padded with 0 to a multiple of 8 bytes
+ * int, int               number of bigrams (0 or L^2) and of quadgrams
+ *                        (0 or L^4)
+ * float[L^2], float[L^4] bigram and quadgram tables
+ * </pre>
+ *
+ * @author luki
+ */
+public class FrequencyTable {
+
+    /**
+     * Number of characters in {@link #getSlots()}, the ASCII ones
+     */
+    public static final int ASCII = 128;
+
+    /**
+     * Slot of the characters that are not letters of the alphabet
+     */
+    public static final int NO_SLOT = -1;
+
+    /**
+     * Probability given to the letters with no frequency or a frequency of 0,
+     * so the logarithms and divisions are finite
+     */
+    public static final double FLOOR = 1e-5;
+
+    /**
+     * Max number of entries of an n-gram table
+     */
+    public static final int MAX_NGRAMS = 1 << 24;
+
+    /**
+     * Version of the language model file format
+     */
+    public static final int VERSION = 2;
+
+    private static final byte[] MAGIC = "GFLM".getBytes(StandardCharsets.US_ASCII);
+
+    private final String alphabet_;
+    private final Map<String, Double> frequencies_;
+    private final int[] slots_;
+    private final double[] expected_;
+    private final double constant_;
+    private final double[] probabilities_;
+    private final double[] logProbabilities_;
+    private final double norm_;
+    private final FloatBuffer bigrams_;
+    private final FloatBuffer quadgrams_;
+
+    /**
+     * Constructor for a FrequencyTable without n-grams
+     *
+     * @param alphabet alphabet of the language
+     * @param freqsMono frequency in % of each letter
+     */
+    public FrequencyTable(String alphabet, Map<String, Double> freqsMono) {
+        this(alphabet, freqsMono, null, null);
+    }
+
+    /**
+     * Constructor for a FrequencyTable
+     *
+     * @param alphabet alphabet of the language
+     * @param freqsMono frequency in % of each letter
+     * @param freqsBi frequency in % of the common bigrams, can be {@code null}
+     * @param freqsQuad frequency in % of the common quadgrams, can be
+     * {@code null}
+     */
+    public FrequencyTable(String alphabet, Map<String, Double> freqsMono, Map<String, Double> freqsBi, Map<String, Double> freqsQuad) {
+        alphabet_ = alphabet;
+        frequencies_ = Collections.unmodifiableMap(new LinkedHashMap<>(freqsMono));
+        slots_ = slots(alphabet);
+
+        expected_ = new double[alphabet_.length()];
+        Arrays.fill(expected_, Double.NaN);
+
+        double constant = 0;
+        for (Map.Entry<String, Double> freq : freqsMono.entrySet()) {
+            int slot = freq.getKey().length() == 1 ? alphabet_.indexOf(freq.getKey()) : NO_SLOT;
+            if (slot == NO_SLOT || freq.getKey().charAt(0) >= ASCII) {
+                // Never counted, its analyzed frequency is always 0
+                constant += freq.getValue() * freq.getValue();
+            } else {
+                expected_[slot] = freq.getValue();
+            }
+        }
+        constant_ = constant;
+
+        norm_ = norm(expected_);
+        probabilities_ = probabilities(expected_);
+        logProbabilities_ = logarithms(probabilities_);
+
+        bigrams_ = packNGrams(freqsBi, 2);
+        quadgrams_ = packNGrams(freqsQuad, 4);
+    }
+
+    /**
+     * Constructor for a FrequencyTable read from a language model file
+     *
+     * @param alphabet alphabet of the language
+     * @param frequencies frequency in % of each letter, as in the config
+     * @param expected frequency in % of each slot
+     * @param constant see {@link #getConstant()}
+     * @param bigrams bigram table, can be {@code null}
+     * @param quadgrams quadgram table, can be {@code null}
+     */
+    private FrequencyTable(String alphabet, Map<String, Double> frequencies, double[] expected, double constant,
+            FloatBuffer bigrams, FloatBuffer quadgrams) {
+        alphabet_ = alphabet;
+        frequencies_ = Collections.unmodifiableMap(frequencies);
+        slots_ = slots(alphabet);
+        expected_ = expected;
+        constant_ = constant;
+
+        norm_ = norm(expected_);
+        probabilities_ = probabilities(expected_);
+        logProbabilities_ = logarithms(probabilities_);
+
+        bigrams_ = bigrams;
+        quadgrams_ = quadgrams;
+    }
+
+    /**
+     * Returns the slot of each ASCII character once normalized
+     *
+     * @param alphabet alphabet of the language
+     * @return slots, {@link #NO_SLOT} for the characters not in the alphabet
+     */
+    private static int[] slots(String alphabet) {
+        int[] slots = new int[ASCII];
+        for (char ch = 0; ch < ASCII; ch++) {
+            slots[ch] = alphabet.indexOf(TextHelper.normalize(String.valueOf(ch)));
+        }
+
+        return slots;
+    }
+
+    /**
+     * Returns the euclidean norm of the given frequencies
+     *
+     * @param expected frequencies, {@code NaN} ones are skipped
+     * @return norm
+     */
+    private static double norm(double[] expected) {
+        double squares = 0;
+        for (double freq : expected) {
+            if (!Double.isNaN(freq)) {
+                squares += freq * freq;
+            }
+        }
+
+        return Math.sqrt(squares);
+    }
+
+    /**
+     * Scales the given frequencies to add up to 1, at least {@link #FLOOR}
+     *
+     * @param expected frequencies, {@code NaN} ones are skipped
+     * @return probabilities
+     */
+    private static double[] probabilities(double[] expected) {
+        double total = 0;
+        for (double freq : expected) {
+            if (!Double.isNaN(freq)) {
+                total += freq;
+            }
+        }
+
+        double[] probabilities = new double[expected.length];
+        for (int slot = 0; slot < expected.length; slot++) {
+            double p = Double.isNaN(expected[slot]) || total == 0 ? 0 : expected[slot] / total;
+            probabilities[slot] = Math.max(p, FLOOR);
+        }
+
+        return probabilities;
+    }
+
+    /**
+     * Returns the natural logarithm of each value
+     *
+     * @param values values
+     * @return logarithms
+     */
+    private static double[] logarithms(double[] values) {
+        double[] logarithms = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            logarithms[i] = Math.log(values[i]);
+        }
+
+        return logarithms;
+    }
+
+    /**
+     * Builds the table of the n-grams of length {@code n}
+     *
+     * @param freqs frequency in % of the common n-grams
+     * @param n length of the n-grams
+     * @return table indexed by packed code, {@code null} if there are no
+     * frequencies or the table would be too big
+     */
+    private FloatBuffer packNGrams(Map<String, Double> freqs, int n) {
+        if (freqs == null) {
+            return null;
+        }
+
+        long size = 1;
+        for (int i = 0; i < n; i++) {
+            size *= alphabet_.length();
+        }
+
+        if (size > MAX_NGRAMS) {
+            IO.warn(String.format("Alphabet too long for a table of %d-grams", n));
+            return null;
+        }
+
+        float[] table = new float[(int) size];
+        Arrays.fill(table, Float.NaN);
+
+        double lowest = 1;
+        for (Map.Entry<String, Double> freq : freqs.entrySet()) {
+            int code = pack(freq.getKey(), n);
+            if (code < 0) {
+                IO.debug(String.format("N-gram %s is not in the alphabet", freq.getKey()));
+                continue;
+            }
+
+            double p = freq.getValue() / 100;
+            if (p > 0) {
+                table[code] = (float) Math.log(p);
+                lowest = Math.min(lowest, p);
+            }
+        }
+
+        double ceiling = Math.log(lowest);
+        for (int code = 0; code < table.length; code++) {
+            if (Float.isNaN(table[code])) {
+                table[code] = (float) Math.min(backOff(code, n), ceiling);
+            }
+        }
+
+        return FloatBuffer.wrap(table);
+    }
+
+    /**
+     * Returns the estimated logarithm of the probability of an n-gram that is
+     * not listed, from the lower order tables
+     *
+     * @param code packed code of the n-gram
+     * @param n length of the n-gram, 2 or 4
+     * @return natural logarithm of the probability
+     */
+    private double backOff(int code, int n) {
+        int length = alphabet_.length();
+        if (n == 4 && bigrams_ != null) {
+            int pair = length * length;
+            return bigrams_.get(code / pair) + bigrams_.get(code % pair);
+        }
+
+        double log = 0;
+        for (int i = 0; i < n; i++) {
+            log += logProbabilities_[code % length];
+            code /= length;
+        }
+
+        return log;
+    }
+
+    /**
+     * Returns the packed code of an n-gram
+     *
+     * @param ngram n-gram, normalized
+     * @param n expected length
+     * @return the code, {@code -1} if the length is not {@code n} or a letter
+     * is not in the alphabet
+     */
+    private int pack(String ngram, int n) {
+        if (ngram.length() != n) {
+            return -1;
+        }
+
+        int code = 0;
+        for (int i = 0; i < n; i++) {
+            char ch = ngram.charAt(i);
+            int slot = ch < ASCII ? slots_[ch] : NO_SLOT;
+            if (slot == NO_SLOT) {
+                return -1;
+            }
+
+            code = code * alphabet_.length() + slot;
+        }
+
+        return code;
+    }
+
+    /**
+     * Getter for alphabet_
+     *
+     * @return alphabet_
+     */
+    public String getAlphabet() {
+        return alphabet_;
+    }
+
+    /**
+     * Returns the monogram frequencies in % as they are in the config, also
+     * the ones of letters that are not in the alphabet
+     *
+     * @return frequencies_, can not be modified
+     */
+    public Map<String, Double> getFrequencies() {
+        return frequencies_;
+    }
+
+    /**
+     * Returns the slot of each ASCII character once normalized, or
+     * {@link #NO_SLOT} if it's not a letter
+     *
+     * @return slots_
+     */
+    public int[] getSlots() {
+        return slots_;
+    }
+
+    /**
+     * Returns the frequency in % of each slot, {@code NaN} if the letter has
+     * no frequency
+     *
+     * @return expected_
+     */
+    public double[] getExpected() {
+        return expected_;
+    }
+
+    /**
+     * Returns the sum of the squared frequencies whose letter can never be
+     * counted (not in the alphabet or not ASCII)
+     *
+     * @return constant_
+     */
+    public double getConstant() {
+        return constant_;
+    }
+
+    /**
+     * Returns the probability of each slot, the frequencies of the alphabet
+     * scaled to add up to 1, at least {@link #FLOOR}
+     *
+     * @return probabilities_
+     */
+    public double[] getProbabilities() {
+        return probabilities_;
+    }
+
+    /**
+     * Returns the natural logarithm of {@link #getProbabilities()}
+     *
+     * @return logProbabilities_
+     */
+    public double[] getLogProbabilities() {
+        return logProbabilities_;
+    }
+
+    /**
+     * Returns the euclidean norm of the frequencies of the alphabet
+     *
+     * @return norm_
+     */
+    public double getNorm() {
+        return norm_;
+    }
+
+    /**
+     * Returns the natural logarithm of the probability of each bigram, indexed
+     * by packed code
+     *
+     * @return bigrams_, {@code null} if the config has no bigrams
+     */
+    public FloatBuffer getBigrams() {
+        return bigrams_;
+    }
+
+    /**
+     * Returns the natural logarithm of the probability of each quadgram,
+     * indexed by packed code
+     *
+     * @return quadgrams_, {@code null} if the config has no quadgrams
+     */
+    public FloatBuffer getQuadgrams() {
+        return quadgrams_;
+    }
+
+    /**
+     * Saves the table to a language model file. It is written to a temporary
+     * file first and then moved, so other processes never map a file that is
+     * half written (unless the filesystem can't move files atomically). The
+     * temporary file is deleted if anything fails.
+     *
+     * @param file file to write
+     * @throws IOException if the file can not be written
+     */
+    public void write(File file) throws IOException {
+        int bigrams = bigrams_ == null ? 0 : bigrams_.capacity();
+        int quadgrams = quadgrams_ == null ? 0 : quadgrams_.capacity();
+
+        int header = align(MAGIC.length + 2 * Integer.BYTES + alphabet_.length() * Character.BYTES);
+        int monograms = Integer.BYTES;
+        for (String key : frequencies_.keySet()) {
+            monograms += Integer.BYTES + key.length() * Character.BYTES + Double.BYTES;
+        }
+        long size = header + (1L + expected_.length) * Double.BYTES + align(monograms) + 2 * Integer.BYTES
+                + (long) (bigrams + quadgrams) * Float.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(alphabet_.length());
+        for (int i = 0; i < alphabet_.length(); i++) {
+            buffer.putChar(alphabet_.charAt(i));
+        }
+        buffer.position(header);
+
+        buffer.putDouble(constant_);
+        for (double expected : expected_) {
+            buffer.putDouble(expected);
+        }
+
+        buffer.putInt(frequencies_.size());
+        for (Map.Entry<String, Double> freq : frequencies_.entrySet()) {
+            buffer.putInt(freq.getKey().length());
+            for (int i = 0; i < freq.getKey().length(); i++) {
+                buffer.putChar(freq.getKey().charAt(i));
+            }
+            buffer.putDouble(freq.getValue());
+        }
+        buffer.position(align(buffer.position()));
+
+        buffer.putInt(bigrams).putInt(quadgrams);
+        for (int i = 0; i < bigrams; i++) {
+            buffer.putFloat(bigrams_.get(i));
+        }
+        for (int i = 0; i < quadgrams; i++) {
+            buffer.putFloat(quadgrams_.get(i));
+        }
+        buffer.flip();
+
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                IO.debug(String.format("Atomic move not supported, replacing %s directly", file.getName()));
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            // Only left if the file could not be written or moved
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Maps a language model file into memory. The n-gram tables are read from
+     * the mapping directly, they are not copied, so the operating system only
+     * loads the pages that are used and shares them between processes.
+     *
+     * @param file file written by {@link #write(File)}
+     * @return the table
+     * @throws IOException if the file can not be read or is not a valid
+     * language model
+     */
+    public static FrequencyTable map(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(String.format("%s is not a language model", file.getName()));
+            }
+
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("%s has version %d, expected %d", file.getName(), version, VERSION));
+            }
+
+            int length = buffer.getInt();
+            StringBuilder alphabet = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                alphabet.append(buffer.getChar());
+            }
+            buffer.position(align(buffer.position()));
+
+            double constant = buffer.getDouble();
+            double[] expected = new double[length];
+            for (int i = 0; i < length; i++) {
+                expected[i] = buffer.getDouble();
+            }
+
+            int monograms = buffer.getInt();
+            Map<String, Double> frequencies = new LinkedHashMap<>();
+            for (int i = 0; i < monograms; i++) {
+                StringBuilder key = new StringBuilder();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    key.append(buffer.getChar());
+                }
+                frequencies.put(key.toString(), buffer.getDouble());
+            }
+            buffer.position(align(buffer.position()));
+
+            int bigrams = buffer.getInt();
+            int quadgrams = buffer.getInt();
+            long pairs = (long) length * length;
+            if ((bigrams != 0 && bigrams != pairs) || (quadgrams != 0 && quadgrams != pairs * pairs)
+                    || buffer.remaining() != (long) (bigrams + quadgrams) * Float.BYTES) {
+                throw new IOException(String.format("%s has tables of the wrong size", file.getName()));
+            }
+
+            FloatBuffer bigramTable = bigrams == 0 ? null : floats(buffer, buffer.position(), bigrams);
+            FloatBuffer quadgramTable = quadgrams == 0 ? null : floats(buffer, buffer.position() + bigrams * Float.BYTES, quadgrams);
+
+            return new FrequencyTable(alphabet.toString(), frequencies, expected, constant, bigramTable, quadgramTable);
+        } catch (RuntimeException e) {
+            // Buffer underflows of truncated files
+            throw new IOException(String.format("%s is not a valid language model", file.getName()), e);
+        }
+    }
+
+    /**
+     * Returns a view of {@code count} floats of the buffer
+     *
+     * @param buffer buffer
+     * @param index first byte
+     * @param count number of floats
+     * @return float view, little endian
+     */
+    private static FloatBuffer floats(ByteBuffer buffer, int index, int count) {
+        return buffer.slice(index, count * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * Rounds up to a multiple of 8 bytes
+     *
+     * @param position byte position
+     * @return aligned position
+     */
+    private static int align(int position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
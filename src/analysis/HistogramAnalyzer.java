@@ -0,0 +1,39 @@
+package analysis;
+
+/**
+ * {@link Analyzer} that only needs the letter histogram of a text. Ciphers
+ * that permute the letters (like {@link ciphers.Caesar}) can count the text
+ * once and score every key from the same histogram, without deciphering it.
+ *
+ * @author luki
+ */
+public interface HistogramAnalyzer extends Analyzer {
+
+    /**
+     * Getter for the alphabet, the slots of the histograms follow its order
+     *
+     * @return alphabet
+     */
+    public String getAlphabet();
+
+    /**
+     * Counts how many times each letter of the alphabet appears in the text,
+     * once normalized
+     *
+     * @param text text to count
+     * @return histogram indexed like the alphabet
+     */
+    public int[] histogram(String text);
+
+    /**
+     * Returns the same error as {@link #analyze(String)} for the text whose
+     * histogram is {@code counts} rotated by {@code shift}, slot {@code i} of
+     * the scored histogram is {@code counts[(i + shift) % length]}. That is
+     * the text shifted {@code shift} letters back in the alphabet.
+     *
+     * @param counts histogram of the text, see {@link #histogram(String)}
+     * @param shift rotation of the histogram
+     * @return the error
+     */
+    public double analyzeHistogram(int[] counts, int shift);
+}
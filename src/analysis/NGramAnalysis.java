@@ -0,0 +1,155 @@
+package analysis;
+
+import java.nio.FloatBuffer;
+import utils.Config;
+import utils.TextHelper;
+
+/**
+ * This class scores texts with the log-probabilities of their n-grams, groups
+ * of consecutive letters. It tells apart texts that have the same letters in a
+ * different order, which the {@link FrequencyAnalysis} can not.
+ *
+ * The letters are read in one pass, skipping the characters that are not in
+ * the alphabet, and the packed code of the last letters is looked up in the
+ * dense tables of the {@link FrequencyTable} (which may be mapped from a
+ * language model file). Quadgrams are used if the text
+ * has at least 4 letters, else bigrams and else single letters. The error is
+ * the negative log-probability per letter, multiplied by 100 so it can be
+ * printed like the other errors. It is not on the scale of the letter
+ * frequencies, so it has its own {@link #THRESHOLD}.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/N-gram">N-gram Wikipedia</a>
+ * @author luki
+ */
+public class NGramAnalysis implements Analyzer {
+
+    /**
+     * Name used to select this analyzer in the {@code decrypt.analyzer} key
+     */
+    public static final String KEY = "ngram";
+
+    /**
+     * Name of the Analyzer
+     */
+    private static final String NAME = "N-Gram Analysis";
+
+    /**
+     * Error under which a text is taken as plain language, see
+     * {@link Analyzer#getThreshold()}. The lowest shorter chain scores 263,
+     * only 2 above the best guess of its line.
+     */
+    public static final double THRESHOLD = 240;
+
+    private final int length_;
+    private final int pairs_;
+    private final int codes_;
+    private final int[] slots_;
+    private final double[] monograms_;
+    private final FloatBuffer bigrams_;
+    private final FloatBuffer quadgrams_;
+
+    /**
+     * Constructor for a N-Gram Analysis object, the tables are taken from the
+     * frequency table of the config. If the config has no quadgrams (or
+     * bigrams) the lower order is used.
+     *
+     * @param conf Config object
+     */
+    public NGramAnalysis(Config conf) {
+        FrequencyTable table = conf.get("lang.frequency-table");
+
+        length_ = table.getAlphabet().length();
+        slots_ = table.getSlots();
+        monograms_ = table.getLogProbabilities();
+        bigrams_ = table.getBigrams();
+        quadgrams_ = table.getQuadgrams();
+
+        pairs_ = length_ * length_;
+        codes_ = quadgrams_ != null ? quadgrams_.capacity() : pairs_;
+    }
+
+    /**
+     * Returns the negative log-probability per letter of the text, or
+     * {@code +Infinity} if it has no letters
+     *
+     * @param text text to analyze
+     * @return the error
+     */
+    @Override
+    public double analyze(String text) {
+        double error = score(text, false);
+        if (Double.isNaN(error)) {
+            error = score(TextHelper.normalize(text), true);
+        }
+
+        return error;
+    }
+
+    /**
+     * Scores the text in one pass, all the orders are added up at the same
+     * time and the highest one the text is long enough for is used
+     *
+     * @param text text to score
+     * @param normalized {@code true} if the text is already normalized, then
+     * the characters that are not ASCII are skipped
+     * @return the error, or {@code NaN} if the text is not ASCII and has to be
+     * normalized
+     */
+    private double score(String text, boolean normalized) {
+        double mono = 0;
+        double bi = 0;
+        double quad = 0;
+        int letters = 0;
+        int code = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= FrequencyTable.ASCII) {
+                if (normalized) {
+                    continue;
+                }
+
+                return Double.NaN;
+            }
+
+            int slot = slots_[ch];
+            if (slot == FrequencyTable.NO_SLOT) {
+                continue;
+            }
+
+            code = (code * length_ + slot) % codes_;
+            letters++;
+
+            mono += monograms_[slot];
+            if (letters >= 2 && bigrams_ != null) {
+                bi += bigrams_.get(code % pairs_);
+            }
+            if (letters >= 4 && quadgrams_ != null) {
+                quad += quadgrams_.get(code);
+            }
+        }
+
+        if (letters == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        if (letters >= 4 && quadgrams_ != null) {
+            return -100 * quad / ((letters - 3) * 4.0);
+        }
+
+        if (letters >= 2 && bigrams_ != null) {
+            return -100 * bi / ((letters - 1) * 2.0);
+        }
+
+        return -100 * mono / letters;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+}
@@ -0,0 +1,164 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Collects the best {@code k} {@link DecryptGuess} (lower error) seen so far.
+ * A guess that can not make the cut is discarded as soon as it is added, so
+ * the memory and the sorting cost are bounded by {@code k}.
+ *
+ * Duplicated guesses are only kept once, and guesses with the same error are
+ * ranked by the order they were added, so the result is the same as sorting
+ * all the guesses and keeping the first {@code k}. The kept guesses are
+ * {@link DecryptGuess#pin() pinned}, so their text is deciphered once.
+ *
+ * It can be read from other threads while a search is adding guesses, an
+ * optional listener is notified each time a guess enters the ranking.
+ *
+ * @author luki
+ */
+public class TopGuesses {
+
+    /**
+     * Value of {@code k} to keep all the guesses
+     */
+    public static final int ALL = Integer.MAX_VALUE;
+
+    private final int k_;
+    private final PriorityQueue<Entry> heap_;
+    private final Set<DecryptGuess> kept_;
+    private final Consumer<DecryptGuess> listener_;
+    private long count_;
+
+    /**
+     * Constructor for TopGuesses
+     *
+     * @param k max number of guesses to keep, {@link #ALL} to keep all of them
+     */
+    public TopGuesses(int k) {
+        this(k, null);
+    }
+
+    /**
+     * Constructor for TopGuesses with a listener
+     *
+     * @param k max number of guesses to keep, {@link #ALL} to keep all of them
+     * @param listener called with each guess that enters the ranking, can be
+     * {@code null}
+     */
+    public TopGuesses(int k, Consumer<DecryptGuess> listener) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+
+        k_ = k;
+        // The worst guess is on top of the heap, to be discarded first
+        heap_ = new PriorityQueue<>(Comparator.reverseOrder());
+        kept_ = new HashSet<>();
+        listener_ = listener;
+        count_ = 0;
+    }
+
+    /**
+     * Adds a guess if it is one of the best {@code k} seen so far
+     *
+     * @param dg guess to add
+     * @return {@code true} if the best guesses changed
+     */
+    public boolean add(DecryptGuess dg) {
+        synchronized (this) {
+            Entry entry = new Entry(dg, count_++);
+            if (heap_.size() == k_ && entry.compareTo(heap_.peek()) >= 0) {
+                return false;
+            }
+
+            // Each guess kept holds one pin, released when it's discarded
+            dg.pin();
+            if (!kept_.add(dg)) {
+                dg.unpin();
+                return false;
+            }
+
+            heap_.add(entry);
+            if (heap_.size() > k_) {
+                DecryptGuess discarded = heap_.poll().guess_;
+                kept_.remove(discarded);
+                discarded.unpin();
+            }
+        }
+
+        // Outside the lock, the listener may read the ranking
+        if (listener_ != null) {
+            listener_.accept(dg);
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds all the guesses
+     *
+     * @param guesses guesses to add
+     * @return {@code true} if the best guesses changed
+     */
+    public boolean addAll(List<DecryptGuess> guesses) {
+        boolean changed = false;
+        for (DecryptGuess dg : guesses) {
+            changed |= add(dg);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Number of guesses kept
+     *
+     * @return size
+     */
+    public synchronized int size() {
+        return heap_.size();
+    }
+
+    /**
+     * Returns the kept guesses in ascending error, lower first
+     *
+     * @return sorted list of {@link DecryptGuess}
+     */
+    public synchronized List<DecryptGuess> toList() {
+        List<Entry> entries = new ArrayList<>(heap_);
+        entries.sort(null);
+
+        List<DecryptGuess> guesses = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            guesses.add(entry.guess_);
+        }
+
+        return guesses;
+    }
+
+    /**
+     * A guess and the order it was added in, used to break ties
+     */
+    private static class Entry implements Comparable<Entry> {
+
+        private final DecryptGuess guess_;
+        private final long order_;
+
+        private Entry(DecryptGuess guess, long order) {
+            guess_ = guess;
+            order_ = order;
+        }
+
+        @Override
+        public int compareTo(Entry t) {
+            int cmp = guess_.compareTo(t.guess_);
+            return cmp != 0 ? cmp : Long.compare(order_, t.order_);
+        }
+    }
+}
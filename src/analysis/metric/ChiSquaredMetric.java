@@ -0,0 +1,61 @@
+package analysis.metric;
+
+import analysis.FrequencyTable;
+
+/**
+ * Pearson's chi-squared statistic of the letter counts against the counts
+ * expected from the language. Rare letters weigh more than with the
+ * {@link EuclideanMetric}, which separates short texts better.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Chi-squared_test">
+ * Chi-squared test Wikipedia</a>
+ * @author luki
+ */
+public class ChiSquaredMetric extends Metric {
+
+    /**
+     * Name of the metric
+     */
+    public static final String NAME = "chi-squared";
+
+    /**
+     * Error under which a text is taken as plain language, see
+     * {@link analysis.Analyzer#getThreshold()}. The scale is narrow: the
+     * lowest shorter chain scores 16 and the median best guess 21, so the
+     * margin is small.
+     */
+    public static final double THRESHOLD = 12;
+
+    /**
+     * Constructor for ChiSquaredMetric
+     *
+     * @param table frequencies of the language
+     */
+    public ChiSquaredMetric(FrequencyTable table) {
+        super(table);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+
+    @Override
+    public double error(int[] counts, int N, int shift) {
+        double[] probabilities = table_.getProbabilities();
+
+        double error = 0;
+        for (int slot = 0; slot < probabilities.length; slot++) {
+            double expected = N * probabilities[slot];
+            double diff = counts[(slot + shift) % counts.length] - expected;
+            error += diff * diff / expected;
+        }
+
+        return error;
+    }
+}
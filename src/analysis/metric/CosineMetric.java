@@ -0,0 +1,67 @@
+package analysis.metric;
+
+import analysis.FrequencyTable;
+
+/**
+ * Cosine distance between the letter counts and the frequencies of the
+ * language, multiplied by 1000 so it can be printed like the other errors. It
+ * does not depend on the length of the text.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Cosine_similarity">
+ * Cosine similarity Wikipedia</a>
+ * @author luki
+ */
+public class CosineMetric extends Metric {
+
+    /**
+     * Name of the metric
+     */
+    public static final String NAME = "cosine";
+
+    /**
+     * Error under which a text is taken as plain language, see
+     * {@link analysis.Analyzer#getThreshold()}. The lowest shorter chain
+     * scores 206, on a line with abbreviations.
+     */
+    public static final double THRESHOLD = 180;
+
+    /**
+     * Constructor for CosineMetric
+     *
+     * @param table frequencies of the language
+     */
+    public CosineMetric(FrequencyTable table) {
+        super(table);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+
+    @Override
+    public double error(int[] counts, int N, int shift) {
+        double[] expected = table_.getExpected();
+
+        double dot = 0;
+        double squares = 0;
+        for (int slot = 0; slot < expected.length; slot++) {
+            int count = counts[(slot + shift) % counts.length];
+            if (!Double.isNaN(expected[slot])) {
+                dot += expected[slot] * count;
+            }
+            squares += (double) count * count;
+        }
+
+        if (table_.getNorm() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return 1000 * (1 - dot / (table_.getNorm() * Math.sqrt(squares)));
+    }
+}
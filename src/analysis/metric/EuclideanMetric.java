@@ -0,0 +1,61 @@
+package analysis.metric;
+
+import analysis.FrequencyTable;
+
+/**
+ * Euclidean distance squared between the frequencies in % of the text and the
+ * frequencies of the language. The frequencies of letters that can not be
+ * counted are added as they are.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Euclidean_distance">
+ * Euclidean distance Wikipedia</a>
+ * @author luki
+ */
+public class EuclideanMetric extends Metric {
+
+    /**
+     * Name of the metric
+     */
+    public static final String NAME = "euclidean";
+
+    /**
+     * Error under which a text is taken as plain language, see
+     * {@link analysis.Analyzer#getThreshold()}. The lowest shorter chain
+     * scores 267, while the median best guess of a line is 397.
+     */
+    public static final double THRESHOLD = 250;
+
+    /**
+     * Constructor for EuclideanMetric
+     *
+     * @param table frequencies of the language
+     */
+    public EuclideanMetric(FrequencyTable table) {
+        super(table);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+
+    @Override
+    public double error(int[] counts, int N, int shift) {
+        double[] expected = table_.getExpected();
+
+        double error = table_.getConstant();
+        for (int slot = 0; slot < expected.length; slot++) {
+            if (!Double.isNaN(expected[slot])) {
+                double diff = expected[slot] - 100.0 * counts[(slot + shift) % counts.length] / N;
+                error += diff * diff;
+            }
+        }
+
+        return error;
+    }
+}
@@ -0,0 +1,58 @@
+package analysis.metric;
+
+import analysis.FrequencyTable;
+
+/**
+ * Negative log-likelihood of the letters of the text, averaged by letter and
+ * multiplied by 100 so it can be printed like the other errors. English text
+ * is around 290.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Likelihood_function">
+ * Likelihood function Wikipedia</a>
+ * @author luki
+ */
+public class LogLikelihoodMetric extends Metric {
+
+    /**
+     * Name of the metric
+     */
+    public static final String NAME = "log-likelihood";
+
+    /**
+     * Error under which a text is taken as plain language, see
+     * {@link analysis.Analyzer#getThreshold()}. Short texts make it noisy,
+     * a five letter line solved at depth 2 still has a shorter chain at 281.
+     */
+    public static final double THRESHOLD = 260;
+
+    /**
+     * Constructor for LogLikelihoodMetric
+     *
+     * @param table frequencies of the language
+     */
+    public LogLikelihoodMetric(FrequencyTable table) {
+        super(table);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public double getThreshold() {
+        return THRESHOLD;
+    }
+
+    @Override
+    public double error(int[] counts, int N, int shift) {
+        double[] logProbabilities = table_.getLogProbabilities();
+
+        double logLikelihood = 0;
+        for (int slot = 0; slot < logProbabilities.length; slot++) {
+            logLikelihood += counts[(slot + shift) % counts.length] * logProbabilities[slot];
+        }
+
+        return -100 * logLikelihood / N;
+    }
+}
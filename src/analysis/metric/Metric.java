@@ -0,0 +1,57 @@
+package analysis.metric;
+
+import analysis.FrequencyTable;
+
+/**
+ * Scoring metric abstract class, measures how far a letter histogram is from
+ * the frequencies of the language. The lower the error the more likely the
+ * text is from the language.
+ *
+ * The histograms can be scored rotated, slot {@code i} of the scored
+ * histogram is {@code counts[(i + shift) % length]}, so the texts shifted by a
+ * {@link ciphers.Caesar} do not have to be counted again.
+ *
+ * @author luki
+ */
+public abstract class Metric {
+
+    /**
+     * Frequencies of the language, calculated when the config is loaded
+     */
+    protected final FrequencyTable table_;
+
+    /**
+     * Constructor for a metric
+     *
+     * @param table frequencies of the language
+     */
+    public Metric(FrequencyTable table) {
+        table_ = table;
+    }
+
+    /**
+     * Getter for NAME
+     *
+     * @return NAME
+     */
+    public abstract String getName();
+
+    /**
+     * Getter for the error under which a text is taken as plain language, see
+     * {@link analysis.Analyzer#getThreshold()}
+     *
+     * @return threshold
+     */
+    public abstract double getThreshold();
+
+    /**
+     * Returns the error of the rotated histogram
+     *
+     * @param counts number of times each letter appears, indexed like the
+     * alphabet
+     * @param N total number of letters counted, not 0
+     * @param shift rotation of the histogram
+     * @return the error
+     */
+    public abstract double error(int[] counts, int N, int shift);
+}
@@ -0,0 +1,79 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import analysis.TopGuesses;
+import ciphers.Cipher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Beam search, at each depth only the best {@code beamWidth} guesses (lower
+ * error) are expanded. All the guesses found are still returned, but the cost
+ * of each level is bounded by the beam width instead of growing exponentially
+ * with the number of ciphers.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Beam_search">Beam search
+ * Wikipedia</a>
+ * @author luki
+ */
+public class BeamSearch extends Search {
+
+    /**
+     * Name of the strategy
+     */
+    public static final String NAME = "beam";
+
+    private final int beamWidth_;
+
+    /**
+     * Constructor for the beam search
+     *
+     * @param ciphers Set of available/implemented ciphers
+     * @param parallel if {@code true} the expansions are done with fork/join
+     * @param maxChain max number of ciphers in a guess, {@code 0} for all
+     * @param beamWidth number of guesses expanded at each depth
+     */
+    public BeamSearch(Set<Cipher> ciphers, boolean parallel, int maxChain, int beamWidth) {
+        super(ciphers, parallel, maxChain);
+
+        if (beamWidth <= 0) {
+            throw new IllegalArgumentException("The beam width must be positive");
+        }
+        beamWidth_ = beamWidth;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void search(String encryptedText, TopGuesses results, SearchContext context) {
+        List<DecryptGuess> frontier = decryptFirst(encryptedText, context);
+
+        for (int i = 0; i < maxDepth_ && !frontier.isEmpty() && !context.isExhausted(); i++) {
+            addFinite(results, frontier);
+            frontier = expand(prune(frontier), context);
+        }
+
+        results.addAll(frontier);
+    }
+
+    /**
+     * Keeps only the best {@code beamWidth_} guesses
+     *
+     * @param guesses guesses to prune
+     * @return the best guesses, sorted by error
+     */
+    private List<DecryptGuess> prune(List<DecryptGuess> guesses) {
+        if (guesses.size() <= beamWidth_) {
+            return guesses;
+        }
+
+        List<DecryptGuess> sorted = new ArrayList<>(guesses);
+        Collections.sort(sorted);
+        return new ArrayList<>(sorted.subList(0, beamWidth_));
+    }
+}
@@ -0,0 +1,84 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import analysis.TopGuesses;
+import ciphers.Cipher;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Best-first search, the guess with the lower error is always expanded next.
+ * The search stops when there is nothing left to expand or when the best
+ * {@code topK} guesses have not changed for {@code patience} expansions.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Best-first_search">Best-first
+ * search Wikipedia</a>
+ * @author luki
+ */
+public class BestFirstSearch extends Search {
+
+    /**
+     * Name of the strategy
+     */
+    public static final String NAME = "best-first";
+
+    private final int topK_;
+    private final int patience_;
+
+    /**
+     * Constructor for the best-first search
+     *
+     * @param ciphers Set of available/implemented ciphers
+     * @param parallel if {@code true} the expansions are done with fork/join
+     * @param maxChain max number of ciphers in a guess, {@code 0} for all
+     * @param topK number of best guesses that have to stay the same to stop
+     * @param patience number of expansions without changes in the best
+     * guesses before stopping
+     */
+    public BestFirstSearch(Set<Cipher> ciphers, boolean parallel, int maxChain, int topK, int patience) {
+        super(ciphers, parallel, maxChain);
+
+        if (topK <= 0 || patience <= 0) {
+            throw new IllegalArgumentException("topK and patience must be positive");
+        }
+        topK_ = topK;
+        patience_ = patience;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void search(String encryptedText, TopGuesses results, SearchContext context) {
+        TopGuesses best = new TopGuesses(topK_);
+        PriorityQueue<DecryptGuess> queue = new PriorityQueue<>();
+
+        List<DecryptGuess> first = decryptFirst(encryptedText, context);
+        addFinite(results, first);
+        queue.addAll(first);
+        addFinite(best, first);
+
+        int unchanged = 0;
+        while (!queue.isEmpty() && unchanged < patience_ && !context.isExhausted()) {
+            DecryptGuess dg = queue.poll();
+            if (dg.getDepth() > maxDepth_) {
+                // Can not be expanded any more
+                continue;
+            }
+
+            List<DecryptGuess> expanded = expand(Collections.singletonList(dg), context);
+            addFinite(results, expanded);
+            queue.addAll(expanded);
+
+            if (addFinite(best, expanded)) {
+                unchanged = 0;
+            } else {
+                unchanged++;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import analysis.TopGuesses;
+import ciphers.Cipher;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exhaustive search, every guess is expanded with every cipher not used in it
+ * until the max depth is reached.
+ *
+ * @author luki
+ */
+public class ExhaustiveSearch extends Search {
+
+    /**
+     * Name of the strategy
+     */
+    public static final String NAME = "exhaustive";
+
+    /**
+     * Constructor for the exhaustive search
+     *
+     * @param ciphers Set of available/implemented ciphers
+     * @param parallel if {@code true} the expansions are done with fork/join
+     * @param maxChain max number of ciphers in a guess, {@code 0} for all
+     */
+    public ExhaustiveSearch(Set<Cipher> ciphers, boolean parallel, int maxChain) {
+        super(ciphers, parallel, maxChain);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected boolean expandsAll() {
+        return true;
+    }
+
+    @Override
+    public void search(String encryptedText, TopGuesses results, SearchContext context) {
+        List<DecryptGuess> frontier = decryptFirst(encryptedText, context);
+
+        // Each level only expands the guesses created by the previous one,
+        // guesses with infinite error are expanded but not kept, only the
+        // last level keeps them
+        for (int i = 0; i < maxDepth_ && !frontier.isEmpty() && !context.isExhausted(); i++) {
+            addFinite(results, frontier);
+            frontier = expand(frontier, context);
+        }
+
+        results.addAll(frontier);
+    }
+}
@@ -0,0 +1,99 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import ciphers.Cipher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join version of {@link Search#expand(List, SearchContext)}. The guesses
+ * are split in halves until one is left, then each cipher that applies to it
+ * is a leaf task. The results are joined in the same order the sequential
+ * version would produce them, so both give the same ranking.
+ *
+ * @author luki
+ */
+class ExpandTask extends RecursiveTask<List<DecryptGuess>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Search search_;
+    private final List<DecryptGuess> guesses_;
+    private final SearchContext context_;
+    private final int from_;
+    private final int to_;
+    private final Cipher cipher_;
+    private final String text_;
+
+    /**
+     * Constructor for the root task, covers all the guesses
+     *
+     * @param search search that owns the ciphers
+     * @param guesses guesses to expand
+     * @param context state of the search call
+     */
+    ExpandTask(Search search, List<DecryptGuess> guesses, SearchContext context) {
+        this(search, guesses, context, 0, guesses.size(), null, null);
+    }
+
+    /**
+     * Constructor for a task covering the guesses in {@code [from, to)}, or
+     * the single cipher/guess pair if {@code cipher} is not {@code null}
+     *
+     * @param search search that owns the ciphers
+     * @param guesses guesses to expand
+     * @param context state of the search call
+     * @param from first guess index, inclusive
+     * @param to last guess index, exclusive
+     * @param cipher cipher of the pair, or {@code null}
+     * @param text text of the guess of the pair, or {@code null}
+     */
+    private ExpandTask(Search search, List<DecryptGuess> guesses, SearchContext context, int from, int to, Cipher cipher, String text) {
+        search_ = search;
+        guesses_ = guesses;
+        context_ = context;
+        from_ = from;
+        to_ = to;
+        cipher_ = cipher;
+        text_ = text;
+    }
+
+    @Override
+    protected List<DecryptGuess> compute() {
+        if (cipher_ != null) {
+            return new ArrayList<>(search_.expand(cipher_, guesses_.get(from_), text_, context_));
+        }
+
+        if (to_ - from_ <= 1) {
+            List<DecryptGuess> result = new ArrayList<>();
+            if (to_ == from_) {
+                return result;
+            }
+
+            // One leaf per cipher/guess pair
+            DecryptGuess dg = guesses_.get(from_);
+            String text = dg.getDecryptedText();
+            List<ExpandTask> pairs = new ArrayList<>();
+            for (Cipher cipher : search_.getCiphers(text, context_)) {
+                pairs.add(new ExpandTask(search_, guesses_, context_, from_, to_, cipher, text));
+            }
+
+            for (ExpandTask pair : invokeAll(pairs)) {
+                result.addAll(pair.join());
+            }
+            dg.release();
+
+            return result;
+        }
+
+        int mid = (from_ + to_) >>> 1;
+        ExpandTask left = new ExpandTask(search_, guesses_, context_, from_, mid, null, null);
+        ExpandTask right = new ExpandTask(search_, guesses_, context_, mid, to_, null, null);
+        right.fork();
+
+        List<DecryptGuess> result = left.compute();
+        result.addAll(right.join());
+        return result;
+    }
+}
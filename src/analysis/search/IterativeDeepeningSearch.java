@@ -0,0 +1,98 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import analysis.TopGuesses;
+import ciphers.Cipher;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Iterative deepening search, a depth-first search limited to chains of one
+ * cipher, then of two ciphers, and so on until the max chain length. It stops
+ * after the first depth that finds a guess with an error lower than the
+ * threshold, so most texts only need one or two ciphers to be tried.
+ *
+ * The shallow levels are walked again at each iteration. Their keys and
+ * errors are already in the {@link TranspositionTable}, so they are not tried
+ * with every key and analysed again, but the released texts of the guesses
+ * are deciphered again, once with their key, to expand them.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Iterative_deepening_depth-first_search">
+ * Iterative deepening depth-first search Wikipedia</a>
+ * @author luki
+ */
+public class IterativeDeepeningSearch extends Search {
+
+    /**
+     * Name of the strategy
+     */
+    public static final String NAME = "iterative";
+
+    private final double threshold_;
+
+    /**
+     * Constructor for the iterative deepening search
+     *
+     * @param ciphers Set of available/implemented ciphers
+     * @param parallel if {@code true} the expansions are done with fork/join
+     * @param maxChain max number of ciphers in a guess, {@code 0} for all
+     * @param threshold errors lower than this are considered plain language
+     */
+    public IterativeDeepeningSearch(Set<Cipher> ciphers, boolean parallel, int maxChain, double threshold) {
+        super(ciphers, parallel, maxChain);
+
+        threshold_ = threshold;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected boolean expandsAll() {
+        return true;
+    }
+
+    @Override
+    public void search(String encryptedText, TopGuesses results, SearchContext context) {
+        List<DecryptGuess> first = decryptFirst(encryptedText, context);
+
+        for (int depth = 0; depth <= maxDepth_ && !context.isExhausted(); depth++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (DecryptGuess dg : first) {
+                best = Math.min(best, search(dg, depth, results, context));
+            }
+
+            if (best < threshold_) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Depth-limited search from {@code dg}, only the guesses that are exactly
+     * {@code depth} steps below it are added to the results (the shallower ones
+     * were added by the previous iterations)
+     *
+     * @param dg guess to start from
+     * @param depth remaining steps
+     * @param results collector of the best guesses
+     * @param context state of this search call
+     * @return lowest error of the added guesses
+     */
+    private double search(DecryptGuess dg, int depth, TopGuesses results, SearchContext context) {
+        if (depth == 0) {
+            addFinite(results, Collections.singletonList(dg));
+            return dg.getError();
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        for (DecryptGuess child : expand(Collections.singletonList(dg), context)) {
+            best = Math.min(best, search(child, depth - 1, results, context));
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,265 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import analysis.TopGuesses;
+import ciphers.Cipher;
+import ciphers.TextProfile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Search strategy abstract class, decides which {@link DecryptGuess} are
+ * expanded and in which order.
+ *
+ * Has the utilities shared by all the strategies, like expanding a list of
+ * guesses (sequentially or with fork/join)
+ *
+ * @author luki
+ */
+public abstract class Search {
+
+    /**
+     * Ciphers used to expand the guesses
+     */
+    protected final List<Cipher> ciphers_;
+
+    /**
+     * Max number of times a guess can be expanded, the first round of
+     * deciphering does not count
+     */
+    protected final int maxDepth_;
+
+    private final boolean parallel_;
+    // All the ciphers use the alphabet of the language
+    private final String alphabet_;
+
+    /**
+     * Constructor for a search strategy
+     *
+     * @param ciphers Set of available/implemented ciphers
+     * @param parallel if {@code true} the expansions are done with fork/join
+     * @param maxChain max number of ciphers in a guess, {@code 0} or more than
+     * the number of ciphers to use all of them
+     */
+    public Search(Set<Cipher> ciphers, boolean parallel, int maxChain) {
+        ciphers_ = List.copyOf(ciphers);
+        if (maxChain <= 0 || maxChain > ciphers_.size()) {
+            maxChain = ciphers_.size();
+        }
+        maxDepth_ = maxChain - 1;
+        parallel_ = parallel;
+        alphabet_ = ciphers_.isEmpty() ? "" : ciphers_.get(0).getAlphabet();
+    }
+
+    /**
+     * Getter for NAME
+     *
+     * @return NAME
+     */
+    public abstract String getName();
+
+    /**
+     * Searches for decipher guesses of the given text, every guess found is
+     * added to {@code results}, which keeps only the best ones.
+     *
+     * The search must stop early when {@link SearchContext#isExhausted()}
+     * returns {@code true}, leaving in {@code results} the best guesses found.
+     *
+     * @param encryptedText text to decrypt
+     * @param results collector of the best guesses
+     * @param context state of this search call
+     */
+    public abstract void search(String encryptedText, TopGuesses results, SearchContext context);
+
+    /**
+     * Returns {@code true} if the strategy expands every child of the guesses
+     * it expands, up to the max depth. Only then can a chain be skipped
+     * because an equivalent one is sure to be reached, see
+     * {@link #isRedundant(Cipher, DecryptGuess)}.
+     *
+     * @return {@code true} if no child is dropped, {@code false} by default
+     */
+    protected boolean expandsAll() {
+        return false;
+    }
+
+    /**
+     * First round of deciphering, every cipher on the encrypted text
+     *
+     * @param encryptedText text to decrypt
+     * @param context state of this search call
+     * @return list of decrypt guesses with only one step
+     */
+    protected List<DecryptGuess> decryptFirst(String encryptedText, SearchContext context) {
+        List<DecryptGuess> guesses = new ArrayList<>();
+        for (Cipher cipher : getCiphers(encryptedText, context)) {
+            if (context.isExhausted()) {
+                break;
+            }
+
+            List<DecryptGuess> first = context.getTable().expand(cipher, null, encryptedText);
+            context.count(first);
+            guesses.addAll(first);
+        }
+
+        return guesses;
+    }
+
+    /**
+     * Returns the ciphers that can be applied to {@code text}, from the most
+     * to the least likely, see {@link Cipher#applicability(TextProfile)}.
+     * The text is only profiled once per search.
+     *
+     * @param text text to decipher
+     * @param context state of this search call
+     * @return ciphers to try
+     */
+    protected List<Cipher> getCiphers(String text, SearchContext context) {
+        return context.getTable().getCiphers(text, this::sortCiphers);
+    }
+
+    /**
+     * Profiles the text and sorts the ciphers that apply to it, the ones with
+     * the same applicability keep the order of {@link #ciphers_}
+     *
+     * @param text text to decipher
+     * @return ciphers to try
+     */
+    private List<Cipher> sortCiphers(String text) {
+        TextProfile profile = new TextProfile(text, alphabet_);
+
+        Cipher[] ciphers = new Cipher[ciphers_.size()];
+        double[] scores = new double[ciphers_.size()];
+        int n = 0;
+        for (Cipher cipher : ciphers_) {
+            double score = cipher.applicability(profile);
+            if (score > 0) {
+                ciphers[n] = cipher;
+                scores[n] = score;
+                n++;
+            }
+        }
+
+        // Insertion sort from the highest score, there are only a few ciphers
+        // and it keeps the order of the ties
+        for (int i = 1; i < n; i++) {
+            Cipher cipher = ciphers[i];
+            double score = scores[i];
+
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                ciphers[j + 1] = ciphers[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            ciphers[j + 1] = cipher;
+            scores[j + 1] = score;
+        }
+
+        return Arrays.asList(Arrays.copyOf(ciphers, n));
+    }
+
+    /**
+     * Expands every guess with every cipher that is not already used in it.
+     * The new guesses are returned grouped by guess, and for each guess from
+     * the most to the least likely cipher, both in the sequential and in the
+     * parallel mode.
+     *
+     * The text of each expanded guess is deciphered once and then released,
+     * only the guesses of the frontier keep their text.
+     *
+     * @param guesses guesses to expand
+     * @param context state of this search call
+     * @return new guesses
+     */
+    protected List<DecryptGuess> expand(List<DecryptGuess> guesses, SearchContext context) {
+        if (parallel_) {
+            return ForkJoinPool.commonPool().invoke(new ExpandTask(this, guesses, context));
+        }
+
+        List<DecryptGuess> expanded = new ArrayList<>();
+        for (DecryptGuess dg : guesses) {
+            String text = dg.getDecryptedText();
+            for (Cipher cipher : getCiphers(text, context)) {
+                expanded.addAll(expand(cipher, dg, text, context));
+            }
+            dg.release();
+        }
+
+        return expanded;
+    }
+
+    /**
+     * Returns {@code true} if deciphering {@code dg} with {@code cipher} only
+     * gives texts that the canonical chain already gives. Two consecutive
+     * ciphers that commute (see {@link Cipher#commutesWith(Cipher)}) are only
+     * tried in one order, the one sorted by name.
+     *
+     * This is only safe if the strategy {@link #expandsAll()}, the others may
+     * drop the canonical chain before reaching it, and then the skipped one
+     * was their only way to the text.
+     *
+     * @param cipher cipher to expand with
+     * @param dg guess to expand
+     * @return {@code true} if the expansion can be skipped
+     */
+    protected boolean isRedundant(Cipher cipher, DecryptGuess dg) {
+        if (!expandsAll()) {
+            return false;
+        }
+
+        // The canonical order [cipher][previous] is expanded instead
+        Cipher previous = dg.getCipher();
+        return cipher.commutesWith(previous) && cipher.getName().compareTo(previous.getName()) < 0;
+    }
+
+    /**
+     * Expands a single guess with the given cipher, returns an empty list if
+     * the cipher was already used in the guess, if the chain is redundant
+     * (see {@link #isRedundant(Cipher, DecryptGuess)}) or if the search has to
+     * stop.
+     *
+     * If the text of the guess was already deciphered with this cipher (by
+     * another chain) the steps stored in the transposition table are reused,
+     * and the new guesses do not hold their text until it is needed.
+     *
+     * @param cipher cipher to expand with
+     * @param dg guess to expand
+     * @param text text of {@code dg}, so it is not deciphered again
+     * @param context state of this search call
+     * @return new guesses
+     */
+    protected List<DecryptGuess> expand(Cipher cipher, DecryptGuess dg, String text, SearchContext context) {
+        if (dg.hasCipher(cipher) || isRedundant(cipher, dg) || context.isExhausted()) {
+            return Collections.emptyList();
+        }
+
+        List<DecryptGuess> expanded = context.getTable().expand(cipher, dg, text);
+        context.count(expanded);
+
+        return expanded;
+    }
+
+    /**
+     * Adds the guesses to the results, guesses with infinite error are not
+     * added
+     *
+     * @param results collector to add to
+     * @param guesses guesses to add
+     * @return {@code true} if the results changed
+     */
+    protected static boolean addFinite(TopGuesses results, List<DecryptGuess> guesses) {
+        boolean changed = false;
+        for (DecryptGuess dg : guesses) {
+            if (dg.getError() != Double.POSITIVE_INFINITY) {
+                changed |= results.add(dg);
+            }
+        }
+
+        return changed;
+    }
+}
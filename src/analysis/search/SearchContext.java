@@ -0,0 +1,110 @@
+package analysis.search;
+
+import analysis.Budget;
+import analysis.CancellationToken;
+import analysis.DecryptGuess;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of a single search call: the {@link TranspositionTable}, the
+ * {@link Budget} with the work done so far and the {@link CancellationToken}.
+ *
+ * It is safe to use from the fork/join tasks.
+ *
+ * @author luki
+ */
+public class SearchContext {
+
+    /**
+     * Estimated size of a {@link DecryptGuess} without its text, in bytes
+     */
+    private static final int GUESS_BYTES = 96;
+
+    private final TranspositionTable table_;
+    private final Budget budget_;
+    private final CancellationToken token_;
+    private final long start_;
+    private final AtomicLong nodes_;
+    private final AtomicLong bytes_;
+    private volatile boolean partial_;
+
+    /**
+     * Constructor for SearchContext, the time starts counting here
+     *
+     * @param budget limits of the search
+     * @param token cancellation token, can be {@code null}
+     */
+    public SearchContext(Budget budget, CancellationToken token) {
+        table_ = new TranspositionTable();
+        budget_ = budget;
+        token_ = token;
+        start_ = System.nanoTime();
+        nodes_ = new AtomicLong();
+        bytes_ = new AtomicLong();
+        partial_ = false;
+    }
+
+    /**
+     * Getter for table_
+     *
+     * @return transposition table of this search
+     */
+    public TranspositionTable getTable() {
+        return table_;
+    }
+
+    /**
+     * Returns {@code true} if the search has to stop, because the budget was
+     * exceeded or the search was cancelled. Once it returns {@code true} the
+     * search is marked as partial.
+     *
+     * @return {@code true} if the search has to stop
+     */
+    public boolean isExhausted() {
+        if (partial_) {
+            return true;
+        }
+
+        long millis = (System.nanoTime() - start_) / 1_000_000;
+        if ((token_ != null && token_.isCancelled()) || budget_.isExceeded(millis, nodes_.get(), bytes_.get())) {
+            partial_ = true;
+        }
+
+        return partial_;
+    }
+
+    /**
+     * Counts a cipher/guess expansion and the guesses it created
+     *
+     * @param expanded guesses created
+     */
+    void count(List<DecryptGuess> expanded) {
+        long bytes = 0;
+        for (DecryptGuess dg : expanded) {
+            // Lazy guesses do not hold their text yet
+            bytes += GUESS_BYTES + (dg.hasText() ? dg.getDecryptedText().length() : 0);
+        }
+
+        nodes_.incrementAndGet();
+        bytes_.addAndGet(bytes);
+    }
+
+    /**
+     * Getter for partial_
+     *
+     * @return {@code true} if the search was stopped before the end
+     */
+    public boolean isPartial() {
+        return partial_;
+    }
+
+    /**
+     * Getter for the number of cipher/guess expansions done
+     *
+     * @return nodes
+     */
+    public long getNodes() {
+        return nodes_.get();
+    }
+}
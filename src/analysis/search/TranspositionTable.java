@@ -0,0 +1,219 @@
+package analysis.search;
+
+import analysis.DecryptGuess;
+import ciphers.Cipher;
+import ciphers.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Memoises the one-step results of each intermediate text, so when different
+ * cipher chains reach the same text it is not deciphered and analysed again.
+ * It also keeps the ciphers that apply to each text.
+ *
+ * The texts themselves are not stored, the table is keyed by a 64 bit
+ * fingerprint of the text and only keeps the key and error of each step. The
+ * text of a reused step is rebuilt by the {@link DecryptGuess} when needed.
+ * Each entry also keeps a {@link #verifier(String)} of its text (length, first
+ * and last character), when two texts with the same fingerprint don't have the
+ * same verifier the second one is calculated without using the table. Texts
+ * that share both are taken as the same text.
+ *
+ * It is safe to use from the fork/join tasks.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Transposition_table">
+ * Transposition table Wikipedia</a>
+ * @author luki
+ */
+public class TranspositionTable {
+
+    private final Map<Long, Entry> table_;
+    private final AtomicInteger hits_;
+    private final AtomicInteger misses_;
+    private final AtomicInteger collisions_;
+
+    /**
+     * Constructor for an empty TranspositionTable
+     */
+    public TranspositionTable() {
+        table_ = new ConcurrentHashMap<>();
+        hits_ = new AtomicInteger();
+        misses_ = new AtomicInteger();
+        collisions_ = new AtomicInteger();
+    }
+
+    /**
+     * Returns the guesses of deciphering {@code text} with {@code cipher}
+     * after the step {@code dg}. The text is only deciphered and analysed the
+     * first time, the next times the stored keys and errors are reused.
+     *
+     * @param cipher cipher to decipher with
+     * @param dg previous step, can be {@code null} if it's the first time
+     * @param text text of {@code dg}, or the encrypted text
+     * @return new guesses
+     */
+    public List<DecryptGuess> expand(Cipher cipher, DecryptGuess dg, String text) {
+        Entry entry = entry(text);
+        if (entry == null) {
+            misses_.incrementAndGet();
+            return cipher.decryptWithoutKey(text, dg);
+        }
+
+        List<Step> steps = entry.steps_.get(cipher.getName());
+        if (steps != null && dg != null) {
+            hits_.incrementAndGet();
+
+            List<DecryptGuess> guesses = new ArrayList<>(steps.size());
+            for (Step step : steps) {
+                guesses.add(dg.addStep(cipher, step.key_, step.error_));
+            }
+            return guesses;
+        }
+
+        // Two tasks may calculate the same entry at the same time, both
+        // results are equal so it does not matter which one is kept
+        misses_.incrementAndGet();
+        List<DecryptGuess> guesses = cipher.decryptWithoutKey(text, dg);
+
+        steps = new ArrayList<>(guesses.size());
+        for (DecryptGuess guess : guesses) {
+            steps.add(new Step(guess.getKey(), guess.getError()));
+        }
+        entry.steps_.putIfAbsent(cipher.getName(), steps);
+
+        return guesses;
+    }
+
+    /**
+     * Returns the ciphers to try on {@code text}, they are only calculated the
+     * first time.
+     *
+     * @param text text to decipher
+     * @param compute function that calculates the ciphers of a text
+     * @return ciphers to try, must not be modified
+     */
+    public List<Cipher> getCiphers(String text, Function<String, List<Cipher>> compute) {
+        Entry entry = entry(text);
+        if (entry == null) {
+            return compute.apply(text);
+        }
+
+        List<Cipher> ciphers = entry.ciphers_;
+        if (ciphers == null) {
+            ciphers = compute.apply(text);
+            entry.ciphers_ = ciphers;
+        }
+
+        return ciphers;
+    }
+
+    /**
+     * Returns the entry of {@code text}, creating it if it's the first time
+     *
+     * @param text text to look up
+     * @return entry, or {@code null} if the entry with the same fingerprint
+     * belongs to another text
+     */
+    private Entry entry(String text) {
+        long verifier = verifier(text);
+        Entry entry = table_.computeIfAbsent(fingerprint(text), fp -> new Entry(verifier));
+        if (entry.verifier_ != verifier) {
+            collisions_.incrementAndGet();
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Getter for the number of lookups that were already in the table
+     *
+     * @return hits
+     */
+    public int getHits() {
+        return hits_.get();
+    }
+
+    /**
+     * Getter for the number of lookups that had to be calculated
+     *
+     * @return misses
+     */
+    public int getMisses() {
+        return misses_.get();
+    }
+
+    /**
+     * Getter for the number of texts that had the fingerprint of another text
+     * and were calculated without the table
+     *
+     * @return collisions
+     */
+    public int getCollisions() {
+        return collisions_.get();
+    }
+
+    /**
+     * Returns a 64 bit fingerprint of the text, made of two different 32 bit
+     * hashes, one of them seeded with the length
+     *
+     * @param text text to fingerprint
+     * @return fingerprint
+     */
+    public static long fingerprint(String text) {
+        int h = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            h = 0x01000193 * (h ^ text.charAt(i));
+        }
+
+        return ((long) text.hashCode() << 32) | (h & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns a cheap check of the text stored next to its fingerprint, made
+     * of its length and its first and last characters
+     *
+     * @param text text to check
+     * @return verifier
+     */
+    public static long verifier(String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+
+        return ((long) text.length() << 32) | ((long) text.charAt(0) << 16) | text.charAt(text.length() - 1);
+    }
+
+    /**
+     * Stored results of one text
+     */
+    private static class Entry {
+
+        private final long verifier_;
+        private final Map<String, List<Step>> steps_;
+        private volatile List<Cipher> ciphers_;
+
+        private Entry(long verifier) {
+            verifier_ = verifier;
+            steps_ = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Key and error of a stored step
+     */
+    private static class Step {
+
+        private final Key key_;
+        private final double error_;
+
+        private Step(Key key, double error) {
+            key_ = key;
+            error_ = error;
+        }
+    }
+}
@@ -16,7 +16,7 @@ public interface Argument {
      * Supported types to parse the arguments as
      */
     public static enum Type {
-        BOOLEAN, STRING, INTEGER
+        BOOLEAN, STRING, INTEGER, DOUBLE
     }
 
     /**
@@ -2,6 +2,7 @@ package argparse;
 
 import argparse.action.Action;
 import argparse.action.ActionBoolean;
+import argparse.action.ActionDouble;
 import argparse.action.ActionInteger;
 import argparse.action.ActionString;
 import java.util.Arrays;
@@ -158,6 +159,9 @@ public final class ArgumentImpl implements Argument {
             case INTEGER:
                 act = new ActionInteger();
                 break;
+            case DOUBLE:
+                act = new ActionDouble();
+                break;
             case STRING:
                 act = new ActionString();
                 break;
@@ -0,0 +1,40 @@
+package argparse.action;
+
+import argparse.Argument;
+import argparse.ArgumentException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link Action} interface for parsing as {@code Double}
+ *
+ * @author luki
+ */
+public class ActionDouble implements Action {
+
+    @Override
+    public void run(String[] args, Argument arg, Map<String, Object> attr, Object choices, Object value) throws ArgumentException {
+        List<Double> argsList = new ArrayList<>();
+
+        for (String str : args) {
+            try {
+                argsList.add(Double.valueOf(str));
+            } catch (NumberFormatException e) {
+                throw new ArgumentException(String.format("Argument \"%s\" needs it's values to be numbers, and got: \"%s\"", arg.getMainFlag(), str));
+            }
+        }
+
+        int max = arg.getMaxNargs();
+        int min = arg.getMinNargs();
+
+        if (min == max && min == 1) {
+            value = argsList.get(0);
+        } else {
+            value = argsList;
+        }
+
+        attr.put(arg.getDest(), value);
+    }
+
+}
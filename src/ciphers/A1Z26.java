@@ -19,7 +19,9 @@ import utils.TextHelper;
 public class A1Z26 extends Cipher {
 
     private static final String NAME = "A1Z26";
+    private static final int ID = 0;
     private static final String CHAR_SEPARATOR = "-";
+    private static final double FALLBACK_APPLICABILITY = 0.01;
     private Analyzer analyzer_;
     
     /**
@@ -39,11 +41,27 @@ public class A1Z26 extends Cipher {
         return NAME;
     }
 
+    @Override
+    public int getId() {
+        return ID;
+    }
+
     @Override
     public Class getKeyClass() {
         return null;
     }
     
+    @Override
+    public double applicability(TextProfile profile) {
+        if (profile.getDigits() > 0) {
+            return profile.getDigitRatio();
+        }
+
+        // Without numbers it still removes the separators and the trailing
+        // spaces, so it's tried after the other ciphers instead of skipped
+        return FALLBACK_APPLICABILITY;
+    }
+
     @Override
     public String validateKey(Key key) {
         if (key == null) {
@@ -142,9 +160,9 @@ public class A1Z26 extends Cipher {
         }
 
         if (decryptGuess == null) {
-            guesses.add(new DecryptGuess(NAME, key, error, decryptedText));
+            guesses.add(new DecryptGuess(this, key, error, decryptedText));
         } else {
-            guesses.add(decryptGuess.clone().addStep(NAME, key, error, decryptedText));
+            guesses.add(decryptGuess.addStep(this, key, error, decryptedText));
         }
 
         return guesses;
@@ -15,6 +15,7 @@ import utils.TextHelper;
 public class Atbash extends Cipher {
 
     private static final String NAME = "ATBASH";
+    private static final int ID = 1;
     private String cipher_;
     private Analyzer analyzer_;
 
@@ -39,11 +40,31 @@ public class Atbash extends Cipher {
         return NAME;
     }
 
+    @Override
+    public int getId() {
+        return ID;
+    }
+
     @Override
     public Class getKeyClass() {
         return null;
     }
     
+    @Override
+    public boolean commutesWith(Cipher other) {
+        // Both are permutations of the alphabet that leave the rest untouched,
+        // reversing and shifting the alphabet in any order is a reversal with
+        // another shift
+        return other instanceof Atbash || other instanceof Caesar;
+    }
+
+    @Override
+    public double applicability(TextProfile profile) {
+        // Reversing the alphabet keeps the index of coincidence of the
+        // original text
+        return profile.getLetterRatio() * (1 + profile.getNormalizedIoC());
+    }
+
     @Override
     public String validateKey(Key key) {
         if (key == null) {
@@ -87,9 +108,9 @@ public class Atbash extends Cipher {
         }
 
         if (decryptGuess == null) {
-            guesses.add(new DecryptGuess(NAME, key, error, decryptedText));
+            guesses.add(new DecryptGuess(this, key, error, decryptedText));
         } else {
-            guesses.add(decryptGuess.clone().addStep(NAME, key, error, decryptedText));
+            guesses.add(decryptGuess.addStep(this, key, error, decryptedText));
         }
 
         return guesses;
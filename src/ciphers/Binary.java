@@ -13,6 +13,7 @@ import java.util.List;
 public class Binary extends Cipher {
 
     private static final String NAME = "BINARY";
+    private static final int ID = 2;
     private Analyzer analyzer_;
 
 
@@ -33,11 +34,22 @@ public class Binary extends Cipher {
         return NAME;
     }
 
+    @Override
+    public int getId() {
+        return ID;
+    }
+
     @Override
     public Class getKeyClass() {
         return null;
     }
     
+    @Override
+    public double applicability(TextProfile profile) {
+        // Any other character makes decrypt return the same text
+        return profile.isBinary() ? 1 : 0;
+    }
+
     @Override
     public String validateKey(Key key) {
         if (key == null) {
@@ -110,9 +122,9 @@ public class Binary extends Cipher {
         }
 
         if (decryptGuess == null) {
-            guesses.add(new DecryptGuess(NAME, key, error, decryptedText));
+            guesses.add(new DecryptGuess(this, key, error, decryptedText));
         } else {
-            guesses.add(decryptGuess.clone().addStep(NAME, key, error, decryptedText));
+            guesses.add(decryptGuess.addStep(this, key, error, decryptedText));
         }
 
         return guesses;
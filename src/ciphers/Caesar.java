@@ -1,7 +1,9 @@
 package ciphers;
 
 import analysis.Analyzer;
+import analysis.CachedAnalyzer;
 import analysis.DecryptGuess;
+import analysis.HistogramAnalyzer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -18,8 +20,13 @@ import utils.TextHelper;
 public class Caesar extends Cipher {
 
     private static final String NAME = "CAESAR";
+    private static final int ID = 3;
     private final Map<Integer, String> cipher_;
+    // One key per shift, shared by all the guesses
+    private final Key[] keys_;
     private Analyzer analyzer_;
+    // Same analyzer if it can score histograms of this alphabet, else null
+    private HistogramAnalyzer histogramAnalyzer_;
 
     /**
      * Constructor for the Caesar cipher
@@ -35,11 +42,21 @@ public class Caesar extends Cipher {
         // Calculate all ciphers
         // This caesar cipher uses right rotation
         cipher_ = new HashMap<>();
+        keys_ = new Key[alphabet.length()];
         for (int key = 0; key < alphabet.length(); key++) {
             cipher_.put(key, alphabet.substring(key).concat(alphabet.substring(0, key)));
+            keys_[key] = new Key(key);
         }
         
         analyzer_ = analyzer;
+        // The histograms are scored without deciphering, there's no text to
+        // look up in the cache
+        if (analyzer instanceof CachedAnalyzer cachedAnalyzer) {
+            analyzer = cachedAnalyzer.getAnalyzer();
+        }
+        if (analyzer instanceof HistogramAnalyzer histogramAnalyzer && histogramAnalyzer.getAlphabet().equals(alphabet)) {
+            histogramAnalyzer_ = histogramAnalyzer;
+        }
     }
 
     @Override
@@ -47,11 +64,29 @@ public class Caesar extends Cipher {
         return NAME;
     }
 
+    @Override
+    public int getId() {
+        return ID;
+    }
+
     @Override
     public Class getKeyClass() {
         return Integer.class;
     }
 
+    @Override
+    public boolean commutesWith(Cipher other) {
+        // Shifting with k and then reversing the alphabet is the same as
+        // reversing it and then shifting with -k
+        return other instanceof Caesar || other instanceof Atbash;
+    }
+
+    @Override
+    public double applicability(TextProfile profile) {
+        // A shift keeps the index of coincidence of the original text
+        return profile.getLetterRatio() * (1 + profile.getNormalizedIoC());
+    }
+
     @Override
     public String validateKey(Key key) {
         if (key == null) {
@@ -89,17 +124,29 @@ public class Caesar extends Cipher {
 
     @Override
     public String decrypt(String text, Key key) {
-        Key decryptKey = new Key(alphabet_.length() - key.getInteger());
+        Key decryptKey = keys_[(alphabet_.length() - key.getInteger()) % alphabet_.length()];
         return encrypt(text, decryptKey);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * If the analyzer is a {@link HistogramAnalyzer} the text is counted once
+     * and every shift is scored by rotating the histogram. Then the texts are
+     * not deciphered, the guesses after a previous step are created without
+     * text and only the ones that are used later are deciphered.
+     */
     @Override
     public List<DecryptGuess> decryptWithoutKey(String encryptedText, DecryptGuess decryptGuess) {
+        if (histogramAnalyzer_ != null) {
+            return decryptHistogram(encryptedText, decryptGuess);
+        }
+
         List<DecryptGuess> guesses = new ArrayList<>();
 
         // Keys 0 and 26 (in english) can be skipped because we would obtain the same text
         for (int i = 1; i < alphabet_.length(); i++) {
-            Key key = new Key(i);
+            Key key = keys_[i];
             String decryptedText = decrypt(encryptedText, key);
             double error = analyzer_.analyze(decryptedText);
 
@@ -108,9 +155,46 @@ public class Caesar extends Cipher {
             }
 
             if (decryptGuess == null) {
-                guesses.add(new DecryptGuess(NAME, key, error, decryptedText));
+                guesses.add(new DecryptGuess(this, key, error, decryptedText));
+            } else {
+                guesses.add(decryptGuess.addStep(this, key, error, decryptedText));
+            }
+        }
+
+        return guesses;
+    }
+
+    /**
+     * Scores all the shifts from a single histogram of the text, see
+     * {@link #decryptWithoutKey(String, DecryptGuess)}
+     *
+     * @param encryptedText text to decipher
+     * @param decryptGuess previous step, or {@code null}
+     * @return guesses of every shift
+     */
+    private List<DecryptGuess> decryptHistogram(String encryptedText, DecryptGuess decryptGuess) {
+        List<DecryptGuess> guesses = new ArrayList<>();
+        int[] counts = histogramAnalyzer_.histogram(encryptedText);
+
+        boolean hasLetters = false;
+        for (int count : counts) {
+            hasLetters |= count > 0;
+        }
+
+        if (!hasLetters && TextHelper.normalize(encryptedText).equals(encryptedText)) {
+            // Every shift gives the same text
+            return guesses;
+        }
+
+        // Keys 0 and 26 (in english) can be skipped because we would obtain the same text
+        for (int i = 1; i < alphabet_.length(); i++) {
+            Key key = keys_[i];
+            double error = histogramAnalyzer_.analyzeHistogram(counts, i);
+
+            if (decryptGuess == null) {
+                guesses.add(new DecryptGuess(this, key, error, decrypt(encryptedText, key)));
             } else {
-                guesses.add(decryptGuess.clone().addStep(NAME, key, error, decryptedText));
+                guesses.add(decryptGuess.addStep(this, key, error));
             }
         }
 
@@ -16,6 +16,7 @@ import utils.TextHelper;
 public abstract class Cipher {
 
     protected static final String ERR_NULL_KEY = "The key cannot be null";
+
     /**
      * alphabet_ of the language being used
      */
@@ -30,6 +31,15 @@ public abstract class Cipher {
         this.alphabet_ = alphabet;
     }
 
+    /**
+     * Getter for the alphabet
+     *
+     * @return alphabet_
+     */
+    public String getAlphabet() {
+        return alphabet_;
+    }
+
     /**
      * Method used for testing ciphers
      *
@@ -59,6 +69,15 @@ public abstract class Cipher {
      * @return NAME
      */
     public abstract String getName();
+
+    /**
+     * Returns a small number that identifies the cipher class, each cipher
+     * has its own constant and no two ciphers can share it. Used as a bit of
+     * the mask in {@link DecryptGuess}, so they should be small.
+     *
+     * @return id of the cipher
+     */
+    public abstract int getId();
     
     /**
      * Returns the class of the key used for the cipher, or {@code null} if the
@@ -97,6 +116,35 @@ public abstract class Cipher {
      */
     public abstract String decrypt(String text, Key key);
 
+    /**
+     * Returns {@code true} if deciphering with this cipher and then with
+     * {@code other} gives the same set of texts as doing it in the opposite
+     * order (maybe with different keys).
+     *
+     * This must be symmetric, if {@code a.commutesWith(b)} then
+     * {@code b.commutesWith(a)}.
+     *
+     * @param other another cipher
+     * @return {@code true} if both ciphers commute
+     */
+    public boolean commutesWith(Cipher other) {
+        return false;
+    }
+
+    /**
+     * Cheap check done before {@link #decryptWithoutKey(String, DecryptGuess)},
+     * returns {@code 0} if this cipher can not be applied to the text, and a
+     * bigger value the more likely it is that the text was ciphered with it.
+     * The searches skip the ciphers with {@code 0} and try the others from the
+     * most to the least likely.
+     *
+     * @param profile profile of the text to decrypt
+     * @return 0 if the cipher does not apply, a positive number otherwise
+     */
+    public double applicability(TextProfile profile) {
+        return 1;
+    }
+
     /**
      * Receives an encrypted text and tries to decrypt it without knowing the
      * key, then returns a list of {@link DecryptGuess} ascending error, lower
@@ -0,0 +1,139 @@
+package ciphers;
+
+/**
+ * Cheap description of a text, calculated in a single pass. Each
+ * {@link Cipher} uses it to tell if it can be applied to the text before
+ * trying to decipher it, see {@link Cipher#applicability(TextProfile)}.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Index_of_coincidence">Index of
+ * coincidence Wikipedia</a>
+ * @author luki
+ */
+public class TextProfile {
+
+    private final int alphabetLength_;
+    private final int length_;
+    private final int letters_;
+    private final int digits_;
+    private final int bits_;
+    private final int spaces_;
+    private final double indexOfCoincidence_;
+
+    /**
+     * Constructor for TextProfile, analyses the given text
+     *
+     * @param text text to describe
+     * @param alphabet alphabet of the language, the index of coincidence only
+     * counts its letters
+     */
+    public TextProfile(String text, String alphabet) {
+        int[] counts = new int[alphabet.length()];
+        int inAlphabet = 0;
+        int letters = 0;
+        int digits = 0;
+        int bits = 0;
+        int spaces = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+
+            if (Character.isLetter(ch)) {
+                int slot = alphabet.indexOf(Character.toUpperCase(ch));
+                if (slot >= 0) {
+                    counts[slot]++;
+                    inAlphabet++;
+                }
+                // Accented letters become letters when normalized
+                letters++;
+            } else if (ch >= '0' && ch <= '9') {
+                digits++;
+                if (ch <= '1') {
+                    bits++;
+                }
+            } else if (ch == ' ') {
+                spaces++;
+            }
+        }
+
+        double coincidences = 0;
+        for (int count : counts) {
+            coincidences += (double) count * (count - 1);
+        }
+
+        alphabetLength_ = alphabet.length();
+        length_ = text.length();
+        letters_ = letters;
+        digits_ = digits;
+        bits_ = bits;
+        spaces_ = spaces;
+        indexOfCoincidence_ = inAlphabet > 1 ? coincidences / ((double) inAlphabet * (inAlphabet - 1)) : 0;
+    }
+
+    /**
+     * Returns the number of letters, accented ones included
+     *
+     * @return letters
+     */
+    public int getLetters() {
+        return letters_;
+    }
+
+    /**
+     * Returns the number of digits
+     *
+     * @return digits
+     */
+    public int getDigits() {
+        return digits_;
+    }
+
+    /**
+     * Returns {@code true} if the text only has 0, 1 and spaces, and at least
+     * one 0 or 1
+     *
+     * @return {@code true} if the text looks like binary
+     */
+    public boolean isBinary() {
+        return bits_ > 0 && bits_ + spaces_ == length_;
+    }
+
+    /**
+     * Returns the fraction of the non space characters that are letters
+     *
+     * @return letter ratio, between 0 and 1
+     */
+    public double getLetterRatio() {
+        return ratio(letters_);
+    }
+
+    /**
+     * Returns the fraction of the non space characters that are digits
+     *
+     * @return digit ratio, between 0 and 1
+     */
+    public double getDigitRatio() {
+        return ratio(digits_);
+    }
+
+    /**
+     * Returns the index of coincidence of the letters of the alphabet
+     * multiplied by its length, about 1.0 for random text and 1.7 for english.
+     * Simple substitution ciphers keep the value of the original text.
+     *
+     * @return normalized index of coincidence
+     */
+    public double getNormalizedIoC() {
+        return indexOfCoincidence_ * alphabetLength_;
+    }
+
+    /**
+     * Returns {@code count} divided by the number of non space characters
+     *
+     * @param count number of characters
+     * @return ratio, 0 if the text is empty
+     */
+    private double ratio(int count) {
+        int nonSpaces = length_ - spaces_;
+        return nonSpaces == 0 ? 0 : (double) count / nonSpaces;
+    }
+}
@@ -1,9 +1,14 @@
 package main;
 
 import analysis.Analyzer;
+import analysis.CachedAnalyzer;
 import analysis.DecryptGuess;
+import analysis.DecryptResult;
 import analysis.Decrypter;
+import analysis.BloomFilter;
+import analysis.DictionaryAnalysis;
 import analysis.FrequencyAnalysis;
+import analysis.NGramAnalysis;
 import ciphers.A1Z26;
 import ciphers.Atbash;
 import ciphers.Binary;
@@ -30,6 +35,8 @@ public class Controller {
 
     private final Set<Cipher> ciphers_;
     private final Config conf_;
+    private final Analyzer analyzer_;
+    private final Decrypter decrypter_;
     
     private MenuController menuCont_;
 
@@ -40,16 +47,60 @@ public class Controller {
      */
     public Controller(Config conf) {
         conf_ = conf;
+        conf_.checkAtLeast("decrypt.guesses", 1);
         
         ciphers_ = new HashSet<>();
-        Analyzer fa = new FrequencyAnalysis(conf_);
+        analyzer_ = cache(createAnalyzer(conf_), conf_);
         
-        ciphers_.add(new A1Z26(conf_.get("lang.alphabet"), fa));
-        ciphers_.add(new Atbash(conf_.get("lang.alphabet"), fa));
-        ciphers_.add(new Binary(conf_.get("lang.alphabet"), fa));
-        ciphers_.add(new Caesar(conf_.get("lang.alphabet"), fa));
+        ciphers_.add(new A1Z26(conf_.get("lang.alphabet"), analyzer_));
+        ciphers_.add(new Atbash(conf_.get("lang.alphabet"), analyzer_));
+        ciphers_.add(new Binary(conf_.get("lang.alphabet"), analyzer_));
+        ciphers_.add(new Caesar(conf_.get("lang.alphabet"), analyzer_));
         
-        Decrypter.init(conf, ciphers_);        
+        decrypter_ = new Decrypter(conf, ciphers_, analyzer_);
+    }
+
+    /**
+     * Creates the analyzer given in the {@code decrypt.analyzer} key
+     *
+     * @param conf {@link Config} object
+     * @return analyzer used by the ciphers
+     */
+    private static Analyzer createAnalyzer(Config conf) {
+        String analyzer = conf.get("decrypt.analyzer");
+        switch (analyzer) {
+            case NGramAnalysis.KEY -> {
+                return new NGramAnalysis(conf);
+            }
+            case DictionaryAnalysis.KEY -> {
+                if (conf.get("lang.dictionary") == null) {
+                    IO.warn(String.format("There is no word list for this language, using %s", FrequencyAnalysis.KEY));
+                    return new FrequencyAnalysis(conf);
+                }
+
+                return new DictionaryAnalysis(conf);
+            }
+            case FrequencyAnalysis.KEY -> {
+                return new FrequencyAnalysis(conf);
+            }
+            default -> {
+                IO.warn(String.format("Unknown analyzer \"%s\", using %s", analyzer, FrequencyAnalysis.KEY));
+                return new FrequencyAnalysis(conf);
+            }
+        }
+    }
+
+    /**
+     * Wraps the analyzer in a {@link CachedAnalyzer} of
+     * {@code decrypt.cache-size} entries
+     *
+     * @param analyzer analyzer to cache
+     * @param conf {@link Config} object
+     * @return cached analyzer, or the same one if the size is 0
+     */
+    private static Analyzer cache(Analyzer analyzer, Config conf) {
+        int size = conf.get("decrypt.cache-size");
+        return size > 0 ? new CachedAnalyzer(analyzer, size) : analyzer;
     }
 
     /**
@@ -90,6 +141,15 @@ public class Controller {
             
             decipherFile(filename);
         }
+
+        BloomFilter filter = conf_.get("lang.dictionary-filter");
+        if (filter != null && filter.getAccepted() + filter.getRejected() > 0) {
+            IO.debug(filter);
+        }
+
+        if (analyzer_ instanceof CachedAnalyzer) {
+            IO.debug(analyzer_);
+        }
     }
     
     /**
@@ -125,14 +185,19 @@ public class Controller {
             IO.printVerbose(line + "\n");
             IO.writeLineFile(writeId, String.format("[%3d] Original: %s", lineNum, line));
             
-            List<DecryptGuess> guesses = Decrypter.decrypt(line);
+            DecryptResult result = decrypter_.decrypt(line, conf_.get("decrypt.guesses"), decrypter_.getBudget(), null);
+            List<DecryptGuess> guesses = result.getGuesses();
 
-            int guessesToShow = Math.min((int) conf_.get("decrypt.guesses"), guesses.size());
-            for (int i = 0; i < guessesToShow; i++) {
+            for (int i = 0; i < guesses.size(); i++) {
                 IO.printVerbose("\t" + guesses.get(i).toString() + "\n");
                 IO.writeLineFile(writeId, "\t" + guesses.get(i).toString());
             }
 
+            if (result.isPartial()) {
+                IO.printVerbose("\t(Partial result, the search was stopped by its budget)\n");
+                IO.writeLineFile(writeId, "\t(Partial result, the search was stopped by its budget)");
+            }
+
             IO.writeLineFile(writeId, "");
             line = IO.readLineFile(readId);
             lineNum++;
@@ -145,6 +210,15 @@ public class Controller {
     public Set<Cipher> getCiphers() {
         return ciphers_;
     }
+
+    /**
+     * Getter for the {@link Decrypter} built from the configuration
+     *
+     * @return decrypter
+     */
+    public Decrypter getDecrypter() {
+        return decrypter_;
+    }
     
     /**
      * Method to test some functionalities done so far, i should probably learn
@@ -169,7 +243,7 @@ public class Controller {
         cipher.test(sample, key);
 
         // Decyper test
-        Decrypter.init(conf_, ciphers_);
+        Decrypter decrypter = new Decrypter(conf_, ciphers_, analyzer_);
         List<String> encryptedText = new ArrayList<>();
         encryptedText.add("NYVPR'F NQIRAGHERF VA JBAQREYNAQ");
         encryptedText.add("ZORXV'H ZWEVMGFIVH RM DLMWVIOZMW");
@@ -178,7 +252,7 @@ public class Controller {
         for (String text : encryptedText) {
             IO.print("Original: ", Colour.BLUE_BOLD_BRIGHT);
             IO.println(text);
-            List<DecryptGuess> guesses = Decrypter.decrypt(text);
+            List<DecryptGuess> guesses = decrypter.decrypt(text);
 
             int guessesToShow = Math.min((int) conf_.get("decrypt.guesses"), guesses.size());
             for (int i = 0; i < guessesToShow; i++) {
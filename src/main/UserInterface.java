@@ -22,6 +22,18 @@ public class UserInterface {
              
     private static final Integer GUESSES_DEFAULT = 5;               // --guesses, -g
     private static final String FILES_DEFAULT = null;               // --files, -f
+    private static final boolean PARALLEL_DEFAULT = false;          // --parallel, -p
+    private static final String STRATEGY_DEFAULT = "exhaustive";    // --strategy, -s
+    private static final Integer BEAM_WIDTH_DEFAULT = 10;           // --beam-width, -bw
+    private static final Integer PATIENCE_DEFAULT = 25;             // --patience, -pt
+    private static final Integer MAX_DEPTH_DEFAULT = 0;             // --max-depth, -md
+    private static final Integer TIME_LIMIT_DEFAULT = 0;            // --time-limit, -tl
+    private static final Integer NODE_LIMIT_DEFAULT = 0;            // --node-limit, -nl
+    private static final Integer MEMORY_LIMIT_DEFAULT = 0;          // --memory-limit, -ml
+    private static final String METRIC_DEFAULT = "euclidean";       // --metric, -m
+    private static final String ANALYZER_DEFAULT = "frequency";     // --analyzer, -a
+    private static final Integer BLOOM_BITS_DEFAULT = 10;           // --bloom-bits, -bb
+    private static final Integer CACHE_SIZE_DEFAULT = 65536;        // --cache-size, -cs
     
     private static final boolean INTERACTIVE_DEFAULT = false;       // --interactive, -i
     
@@ -48,6 +60,19 @@ public class UserInterface {
         
         ap_.addArgument("decrypt", "--files", "-f").nargs("+").setHelp("Files to deciper").setDefault(FILES_DEFAULT).setType(Type.STRING).required();
         ap_.addArgument("decrypt", "--guesses",  "-g").nargs(1).setHelp("Sets the number of decipher guesses to show/save").setDefault(GUESSES_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--parallel", "-p").setHelp("Uses all the cores when searching for decipher guesses").setDefault(PARALLEL_DEFAULT).setType(Type.BOOLEAN);
+        ap_.addArgument("decrypt", "--strategy", "-s").nargs(1).setHelp("Sets the search strategy (exhaustive, beam, best-first, iterative)").setDefault(STRATEGY_DEFAULT).setType(Type.STRING);
+        ap_.addArgument("decrypt", "--beam-width", "-bw").nargs(1).setHelp("Sets the number of guesses expanded at each depth by the beam strategy").setDefault(BEAM_WIDTH_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--patience", "-pt").nargs(1).setHelp("Sets the number of expansions without changes in the best guesses before the best-first strategy stops").setDefault(PATIENCE_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--max-depth", "-md").nargs(1).setHelp("Sets the max number of ciphers chained in a guess, 0 for all the ciphers").setDefault(MAX_DEPTH_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--threshold", "-t").nargs(1).setHelp("Sets the error under which the iterative strategy stops going deeper, by default the one of the analyzer and metric").setType(Type.DOUBLE);
+        ap_.addArgument("decrypt", "--time-limit", "-tl").nargs(1).setHelp("Sets the max milliseconds spent on each line, 0 for no limit").setDefault(TIME_LIMIT_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--node-limit", "-nl").nargs(1).setHelp("Sets the max number of expansions on each line, 0 for no limit").setDefault(NODE_LIMIT_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--memory-limit", "-ml").nargs(1).setHelp("Sets the max KiB of guesses created on each line, 0 for no limit").setDefault(MEMORY_LIMIT_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--metric", "-m").nargs(1).setHelp("Sets the letter frequency metric (euclidean, chi-squared, log-likelihood, cosine)").setDefault(METRIC_DEFAULT).setType(Type.STRING);
+        ap_.addArgument("decrypt", "--analyzer", "-a").nargs(1).setHelp("Sets the analyzer used to score the guesses (frequency, ngram, dictionary)").setDefault(ANALYZER_DEFAULT).setType(Type.STRING);
+        ap_.addArgument("decrypt", "--bloom-bits", "-bb").nargs(1).setHelp("Sets the bits per word of the dictionary Bloom filter, more bits use more memory and give fewer false positives, 0 for no filter").setDefault(BLOOM_BITS_DEFAULT).setType(Type.INTEGER);
+        ap_.addArgument("decrypt", "--cache-size", "-cs").nargs(1).setHelp("Sets the max number of analyzed texts whose error is remembered, 0 for no cache").setDefault(CACHE_SIZE_DEFAULT).setType(Type.INTEGER);
         
         // Interactive mode disables all the other arguments, because if needed
         // the program will ask for the required arguments if they are not given
@@ -1,7 +1,8 @@
 package menu;
 
 import analysis.DecryptGuess;
-import analysis.Decrypter;
+import analysis.DecryptPublisher;
+import analysis.TopGuesses;
 import ciphers.Cipher;
 import ciphers.Key;
 import java.util.ArrayList;
@@ -95,7 +96,24 @@ public class MenuController {
                 IO.print("Enter text to decrypt: ", Menu.MAIN_COLOUR);
                 String toDecrypt = IO.readLine();
                 
-                List<DecryptGuess> guesses = Decrypter.decrypt(toDecrypt);
+                // Show the best guess while the search is still running
+                DecryptPublisher publisher = controller_.getDecrypter().stream(toDecrypt, TopGuesses.ALL);
+                DecryptGuess[] best = new DecryptGuess[1];
+                publisher.consume(dg -> {
+                    if (best[0] == null || dg.compareTo(best[0]) < 0) {
+                        if (best[0] != null) {
+                            IO.clearLines(1);
+                        }
+                        IO.println("Best so far: " + dg.toString());
+                        best[0] = dg;
+                    }
+                }).join();
+                
+                if (best[0] != null) {
+                    IO.clearLines(1);
+                }
+                
+                List<DecryptGuess> guesses = publisher.getRanking();
                 int toShow = Math.min(conf_.get("decrypt.guesses"), guesses.size());
                 
                 String userIn;
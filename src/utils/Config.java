@@ -1,6 +1,11 @@
 package utils;
 
+import analysis.BloomFilter;
+import analysis.Dawg;
+import analysis.FrequencyTable;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +29,17 @@ public class Config {
      */
     public static final String DECODED_EXTENSION = "_decoded.txt";
 
+    /**
+     * Extension for the binary language model files, see
+     * {@link FrequencyTable#write(File)}
+     */
+    public static final String MODEL_EXTENSION = ".lm";
+
+    /**
+     * Extension for the word lists, one word per line
+     */
+    public static final String WORDS_EXTENSION = ".words";
+
     private final Namespace ns_;
 
     /**
@@ -58,6 +74,21 @@ public class Config {
         return get(dest);
     }
 
+    /**
+     * Checks that the integer of the given argument is at least {@code min},
+     * if it's smaller warns and sets it to {@code min}
+     *
+     * @param dest name of the argument
+     * @param min smallest valid value
+     */
+    public void checkAtLeast(String dest, int min) {
+        int value = ns_.get(dest);
+        if (value < min) {
+            IO.warn(String.format("--%s can not be smaller than %d, using %d", dest.substring(dest.indexOf('.') + 1), min, min));
+            ns_.put(dest, min);
+        }
+    }
+
     /**
      * Getter for {@link Namespace} keys
      * 
@@ -78,8 +109,20 @@ public class Config {
     }
     
     /**
-     * Loads the alphabet and frequencies form the [lang].config file. If the
-     * configuration file is not valid returns.
+     * Loads the alphabet and frequencies form the [lang].config file, and builds
+     * the {@link FrequencyTable} of the language. If the configuration file is
+     * not valid returns.
+     *
+     * The table is saved to the [lang].lm binary file, the next times it is
+     * mapped from that file instead of parsing the configuration file, unless
+     * the configuration file was modified after it. Both ways set the same
+     * keys: {@code lang.alphabet}, {@code lang.frequencies-mono} and
+     * {@code lang.frequency-table}, the n-gram frequencies are only kept in
+     * the table.
+     *
+     * The [lang].words word list is optional, if it exists it is loaded into a
+     * {@link Dawg} and a {@link BloomFilter} with {@code decrypt.bloom-bits}
+     * bits per word (0 for no filter).
      *
      * @return Returns -1 if an error occurred, 0 otherwise
      */
@@ -88,6 +131,22 @@ public class Config {
         IO.debug("Config Folder: " + configFolder);
         
         File configFile = new File(String.format("%s%s.config", configFolder, ns_.getString("lang.language")));
+        File modelFile = new File(String.format("%s%s%s", configFolder, ns_.getString("lang.language"), MODEL_EXTENSION));
+        if (configFile.exists() && modelFile.lastModified() >= configFile.lastModified()) {
+            try {
+                FrequencyTable table = FrequencyTable.map(modelFile);
+                ns_.put("lang.alphabet", table.getAlphabet());
+                ns_.put("lang.frequencies-mono", table.getFrequencies());
+                ns_.put("lang.frequency-table", table);
+
+                IO.debug("Language Model: " + modelFile.getAbsolutePath());
+                loadDictionary(configFolder);
+                return 0;
+            } catch (IOException e) {
+                IO.warn(String.format("Could not load %s, it will be created again: %s", modelFile.getName(), e.getMessage()));
+            }
+        }
+
         int id = IO.openReadFile(configFile);
 
         IO.debug("Config File: " + configFile.getAbsolutePath());
@@ -97,6 +156,10 @@ public class Config {
             return -1;
         }
 
+        // Only used to build the table, they are not kept in the config
+        Map<String, Double> frequenciesBi = null;
+        Map<String, Double> frequenciesQuad = null;
+
         String line = IO.readLineFile(id);
         int lineCount = 1;
         while (line != null) {
@@ -127,31 +190,31 @@ public class Config {
                 case "alphabet" -> ns_.put("lang.alphabet",args[1]);
 
                 case "frequencies_mono" -> {
-                    Map<String, Double> frequenciesMono = new HashMap<>();
-
-                    int argCount = 1;
-                    for (String kvPair : args[1].split(";")) {
-                        String[] kv = kvPair.split("=");
-                        if (kv.length != 2) {
-                            IO.warn(String.format("(%s:%d) <Key=Value> pair %d can not be split!", configFile.getName(), lineCount, argCount));
-                            IO.closeReadFile(id);
-                            return -1;
-                        }
-
-                        if (TextHelper.checkDouble(kv[1])) {
-                            frequenciesMono.put(kv[0], Double.valueOf(kv[1]));
-                        } else {
-                            IO.warn(String.format("(%s:%d) <Key=Value> pair %s=%s Value is not a number!", configFile.getName(), lineCount, kv[0], kv[1]));
-                            IO.closeReadFile(id);
-                            return -1;
-                        }
-
-                        argCount++;
+                    Map<String, Double> frequenciesMono = parseFrequencies(args[1], configFile, lineCount);
+                    if (frequenciesMono == null) {
+                        IO.closeReadFile(id);
+                        return -1;
                     }
-                    
+
                     ns_.put("lang.frequencies-mono", frequenciesMono);
                 }
 
+                case "frequencies_bi" -> {
+                    frequenciesBi = parseFrequencies(args[1], configFile, lineCount);
+                    if (frequenciesBi == null) {
+                        IO.closeReadFile(id);
+                        return -1;
+                    }
+                }
+
+                case "frequencies_quad" -> {
+                    frequenciesQuad = parseFrequencies(args[1], configFile, lineCount);
+                    if (frequenciesQuad == null) {
+                        IO.closeReadFile(id);
+                        return -1;
+                    }
+                }
+
                 default -> {
                     IO.warn(String.format("(%s:%d) Key %s is not a valid one!", configFile.getName(), lineCount, args[0]));
                     IO.closeReadFile(id);
@@ -178,6 +241,97 @@ public class Config {
 
         IO.closeReadFile(id);
 
+        // Calculated once here so every analyzer shares it
+        FrequencyTable table = new FrequencyTable(ns_.getString("lang.alphabet"), ns_.get("lang.frequencies-mono"),
+                frequenciesBi, frequenciesQuad);
+        ns_.put("lang.frequencies-mono", table.getFrequencies());
+        ns_.put("lang.frequency-table", table);
+
+        try {
+            table.write(modelFile);
+            IO.debug("Language Model written: " + modelFile.getAbsolutePath());
+        } catch (IOException e) {
+            IO.warn(String.format("Could not write %s: %s", modelFile.getName(), e.getMessage()));
+        }
+
+        loadDictionary(configFolder);
         return 0;
     }
+
+    /**
+     * Loads the [lang].words word list if it exists, the lines starting with
+     * {@code #} are comments
+     *
+     * @param configFolder configuration folder
+     */
+    private void loadDictionary(String configFolder) {
+        File wordsFile = new File(String.format("%s%s%s", configFolder, ns_.getString("lang.language"), WORDS_EXTENSION));
+        if (!wordsFile.exists()) {
+            IO.debug("No word list: " + wordsFile.getAbsolutePath());
+            return;
+        }
+
+        int id = IO.openReadFile(wordsFile);
+        if (id == -1) {
+            return;
+        }
+
+        List<String> words = new ArrayList<>();
+        String line = IO.readLineFile(id);
+        while (line != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                words.add(TextHelper.normalize(line));
+            }
+
+            line = IO.readLineFile(id);
+        }
+        IO.closeReadFile(id);
+
+        Dawg dictionary = new Dawg(words);
+        ns_.put("lang.dictionary", dictionary);
+        IO.debug(String.format("Word list: %s (%d words, %d nodes)", wordsFile.getAbsolutePath(), words.size(), dictionary.size()));
+
+        int bits = ns_.get("decrypt.bloom-bits");
+        if (bits > 0) {
+            BloomFilter filter = new BloomFilter(words.size(), bits);
+            for (String word : words) {
+                filter.add(word);
+            }
+            ns_.put("lang.dictionary-filter", filter);
+        }
+    }
+
+    /**
+     * Parses a list of {@code <Key=Value>} pairs separated by {@code ;} where
+     * the values are numbers, used for the frequencies
+     *
+     * @param value value of the line
+     * @param configFile file being loaded, for the warnings
+     * @param lineCount line being parsed, for the warnings
+     * @return the pairs, or {@code null} if they are not valid
+     */
+    private Map<String, Double> parseFrequencies(String value, File configFile, int lineCount) {
+        Map<String, Double> frequencies = new HashMap<>();
+
+        int argCount = 1;
+        for (String kvPair : value.split(";")) {
+            String[] kv = kvPair.split("=");
+            if (kv.length != 2) {
+                IO.warn(String.format("(%s:%d) <Key=Value> pair %d can not be split!", configFile.getName(), lineCount, argCount));
+                return null;
+            }
+
+            if (TextHelper.checkDouble(kv[1])) {
+                frequencies.put(kv[0], Double.valueOf(kv[1]));
+            } else {
+                IO.warn(String.format("(%s:%d) <Key=Value> pair %s=%s Value is not a number!", configFile.getName(), lineCount, kv[0], kv[1]));
+                return null;
+            }
+
+            argCount++;
+        }
+
+        return frequencies;
+    }
 }